@@ -0,0 +1,71 @@
+package com.github.tianma8023.benchmark;
+
+import com.github.tianma8023.formatter.SimpleSunriseSunsetLabelFormatter;
+import com.github.tianma8023.model.Time;
+import com.github.tianma8023.model.TimeOfDay;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 标签格式化: String.format 与写入可复用缓冲区、以及 SunriseSunsetView 中缓存后的开销对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LabelFormatterBenchmark {
+
+    private final SimpleSunriseSunsetLabelFormatter formatter = new SimpleSunriseSunsetLabelFormatter();
+    private final Time legacyTime = new Time(6, 17);
+    private final TimeOfDay time = TimeOfDay.of(6, 17);
+    // 缓存场景中交替使用的两个时间, 每 FRAMES_PER_CHANGE 帧切换一次, 模拟标签偶尔变化的动画
+    private static final int FRAMES_PER_CHANGE = 60;
+    private final TimeOfDay[] times = {TimeOfDay.of(6, 17), TimeOfDay.of(18, 32)};
+    private int frame;
+    private final StringBuilder builder = new StringBuilder();
+    private char[] chars = new char[16];
+
+    // 模拟 SunriseSunsetView 的标签缓存
+    private TimeOfDay cachedTime;
+    private int cachedLength;
+
+    @Benchmark
+    public String stringFormat() {
+        return formatter.formatSunriseLabel(legacyTime);
+    }
+
+    @Benchmark
+    public int bufferFormat() {
+        return format(time);
+    }
+
+    private int format(TimeOfDay time) {
+        builder.setLength(0);
+        formatter.formatSunriseLabel(time, builder);
+        int length = builder.length();
+        builder.getChars(0, length, chars, 0);
+        return length;
+    }
+
+    @Benchmark
+    public int cachedFormat() {
+        TimeOfDay time = times[(frame++ / FRAMES_PER_CHANGE) & 1];
+        if (cachedTime != time) {
+            cachedLength = format(time);
+            cachedTime = time;
+        }
+        return cachedLength;
+    }
+}
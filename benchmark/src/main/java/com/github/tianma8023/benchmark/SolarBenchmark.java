@@ -0,0 +1,105 @@
+package com.github.tianma8023.benchmark;
+
+import com.github.tianma8023.solar.SolarCache;
+import com.github.tianma8023.solar.SolarCalculator;
+import com.github.tianma8023.solar.SolarEventIndex;
+import com.github.tianma8023.solar.SolarTables;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单次日出日落计算, 缓存命中时的查找, 批量生成全年日出日落表, 以及在事件索引中查找下一次日出日落
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolarBenchmark {
+
+    private static final int LOCATION_COUNT = 10000;
+    private static final int DAY_COUNT = 366;
+
+    private final int startEpochDay = SolarCalculator.epochDay(2020, 1, 1);
+    private double[] latitudes;
+    private double[] longitudes;
+    private TimeZone[] zones;
+    private short[] sunrise;
+    private short[] sunset;
+    private final SolarCache cache = new SolarCache(64);
+    private SolarEventIndex eventIndex;
+    private SolarEventIndex.Cursor eventCursor;
+    private long startMillis;
+    private int queryCount;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(8023);
+        String[] ids = TimeZone.getAvailableIDs();
+        latitudes = new double[LOCATION_COUNT];
+        longitudes = new double[LOCATION_COUNT];
+        zones = new TimeZone[LOCATION_COUNT];
+        for (int i = 0; i < LOCATION_COUNT; i++) {
+            latitudes[i] = random.nextDouble() * 130 - 65;
+            longitudes[i] = random.nextDouble() * 360 - 180;
+            zones[i] = TimeZone.getTimeZone(ids[random.nextInt(ids.length)]);
+        }
+        sunrise = new short[LOCATION_COUNT * DAY_COUNT];
+        sunset = new short[LOCATION_COUNT * DAY_COUNT];
+        SolarTables.fill(latitudes, longitudes, zones, startEpochDay, DAY_COUNT, sunrise, sunset);
+        eventIndex = SolarEventIndex.fromTables(sunrise, sunset, zones, startEpochDay, DAY_COUNT);
+        startMillis = TimeUnit.DAYS.toMillis(startEpochDay);
+        eventCursor = eventIndex.cursor(startMillis);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int computePacked() {
+        return SolarCalculator.computePacked(latitudes[0], longitudes[0], startEpochDay, 480);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int cachedPacked() {
+        return cache.getPacked(latitudes[0], longitudes[0], startEpochDay, 480);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int nextEventForLocation() {
+        int query = queryCount++;
+        long after = startMillis + (query * 7919L) % TimeUnit.DAYS.toMillis(DAY_COUNT);
+        return eventIndex.nextEvent(query % LOCATION_COUNT, after);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long nextEventAcrossLocations() {
+        if (!eventCursor.hasEvent()) {
+            eventCursor.seek(startMillis);
+        }
+        long time = eventCursor.getTimeMillis();
+        eventCursor.advance();
+        return time;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public short[] fillYearForAllLocations() {
+        SolarTables.fill(latitudes, longitudes, zones, startEpochDay, DAY_COUNT, sunrise, sunset);
+        return sunrise;
+    }
+}
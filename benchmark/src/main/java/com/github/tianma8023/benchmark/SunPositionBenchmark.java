@@ -0,0 +1,81 @@
+package com.github.tianma8023.benchmark;
+
+import com.github.tianma8023.geometry.SunArcGeometry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比率计算与太阳坐标的三角函数运算.
+ * 太阳坐标使用与 SunriseSunsetRenderer 相同的 {@link SunArcGeometry}, 比较精确计算与查找表
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SunPositionBenchmark {
+
+    private static final float LEFT = 20;
+    private static final float TOP = 20;
+    private static final float BOTTOM = 340;
+    private static final float TRACK_RADIUS = 320;
+    private static final float SUN_EXTENT = 24;
+
+    private final int sunrise = 6 * 60 + 17;
+    private final int sunset = 18 * 60 + 32;
+    private int currentTime;
+    private float ratio;
+    private final SunArcGeometry exact = new SunArcGeometry();
+    private final SunArcGeometry table = SunArcGeometry.withLookupTable();
+    private final float[] out = new float[4];
+
+    @Setup
+    public void setUp() {
+        currentTime = 13 * 60 + 5;
+        ratio = 0.37f;
+        exact.setTrack(LEFT, TOP, BOTTOM, TRACK_RADIUS);
+        table.setTrack(LEFT, TOP, BOTTOM, TRACK_RADIUS);
+    }
+
+    @Benchmark
+    public float ratio() {
+        float ratio = sunset > sunrise ? 1.0f * (currentTime - sunrise) / (sunset - sunrise) : 0;
+        return SunArcGeometry.clampRatio(ratio);
+    }
+
+    @Benchmark
+    public float[] sunPosition() {
+        exact.sunPosition(ratio, out, 0);
+        return out;
+    }
+
+    @Benchmark
+    public float[] sunPositionLookupTable() {
+        table.sunPosition(ratio, out, 0);
+        return out;
+    }
+
+    @Benchmark
+    public float[] changedBounds() {
+        exact.changedBounds(ratio, ratio + 0.01f, SUN_EXTENT, out, 0);
+        return out;
+    }
+
+    @Benchmark
+    public float[] changedBoundsLookupTable() {
+        table.changedBounds(ratio, ratio + 0.01f, SUN_EXTENT, out, 0);
+        return out;
+    }
+}
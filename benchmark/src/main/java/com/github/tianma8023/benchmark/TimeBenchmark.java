@@ -0,0 +1,64 @@
+package com.github.tianma8023.benchmark;
+
+import com.github.tianma8023.model.Time;
+import com.github.tianma8023.model.TimeOfDay;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time / TimeOfDay 的创建与转换
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TimeBenchmark {
+
+    private int hour = 6;
+    private int minute = 17;
+    private Time legacyTime = new Time(6, 17);
+    private TimeOfDay timeOfDay = TimeOfDay.of(6, 17);
+    private TimeOfDay sunset = TimeOfDay.of(18, 32);
+
+    @Benchmark
+    public Time newLegacyTime() {
+        return new Time(hour, minute);
+    }
+
+    @Benchmark
+    public TimeOfDay pooledTimeOfDay() {
+        return TimeOfDay.of(hour, minute);
+    }
+
+    @Benchmark
+    public int legacyTransformToMinutes() {
+        return legacyTime.transformToMinutes();
+    }
+
+    @Benchmark
+    public int timeOfDayToMinuteOfDay() {
+        return timeOfDay.toMinuteOfDay();
+    }
+
+    @Benchmark
+    public TimeOfDay legacyToTimeOfDay() {
+        return legacyTime.toTimeOfDay();
+    }
+
+    @Benchmark
+    public int timeOfDayMinutesUntil() {
+        return timeOfDay.minutesUntil(sunset);
+    }
+}
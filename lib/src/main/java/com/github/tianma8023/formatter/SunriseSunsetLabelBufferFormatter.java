@@ -0,0 +1,20 @@
+package com.github.tianma8023.formatter;
+
+import com.github.tianma8023.model.TimeOfDay;
+
+/**
+ * 将日出日落标签直接写入可复用缓冲区的格式化接口,
+ * SunriseSunsetView 会优先使用该接口, 避免每次格式化都创建 String
+ */
+public interface SunriseSunsetLabelBufferFormatter extends SunriseSunsetLabelFormatter {
+
+    /**
+     * 将日出标签追加到 out 中, out 在调用前已被清空
+     */
+    void formatSunriseLabel(TimeOfDay sunrise, StringBuilder out);
+
+    /**
+     * 将日落标签追加到 out 中, out 在调用前已被清空
+     */
+    void formatSunsetLabel(TimeOfDay sunset, StringBuilder out);
+}
@@ -0,0 +1,226 @@
+package com.github.tianma8023.geometry;
+
+/**
+ * 日出日落比率与半圆轨迹上坐标的换算, 不依赖 Android, 可以在任意JVM上测试和复用.
+ * <p>
+ * 比率0为轨迹左端(日出), 1为右端(日落), 太阳中心为
+ * {@code (left + R - R * cos(PI * ratio), bottom - R * sin(PI * ratio))}.
+ * 结果写入调用方提供的 float 数组, 不会创建对象.
+ * <p>
+ * 默认使用 {@link Math#sin} / {@link Math#cos} 计算. 通过 {@link #withLookupTable()} 创建的实例
+ * 对 [0, 1] 内的比率查表并线性插值, 默认表大小下误差小于 {@link #DEFAULT_TABLE_MAX_ERROR} 倍轨迹半径;
+ * 超出 [0, 1] 的比率仍使用精确计算. 实例不是线程安全的, 查找表本身是只读的, 可以共享.
+ */
+public final class SunArcGeometry {
+
+    /**
+     * 默认查找表在 [0, PI] 上的分段数
+     */
+    public static final int DEFAULT_TABLE_SIZE = 1024;
+    /**
+     * 默认查找表线性插值的最大误差(相对于单位圆), 即 (PI / DEFAULT_TABLE_SIZE)^2 / 8 再留出 float 舍入的余量
+     */
+    public static final float DEFAULT_TABLE_MAX_ERROR = 2e-6f;
+
+    private final float[] sinTable;
+    private final float[] cosTable;
+    private final int tableSize;
+
+    // 轨迹所在的区域及半径
+    private float left;
+    private float top;
+    private float bottom;
+    private float radius;
+
+    /**
+     * 使用精确三角函数计算
+     */
+    public SunArcGeometry() {
+        this(null, null);
+    }
+
+    private SunArcGeometry(float[] sinTable, float[] cosTable) {
+        this.sinTable = sinTable;
+        this.cosTable = cosTable;
+        this.tableSize = sinTable == null ? 0 : sinTable.length - 1;
+    }
+
+    /**
+     * 使用默认大小的共享查找表
+     */
+    public static SunArcGeometry withLookupTable() {
+        return new SunArcGeometry(DefaultTableHolder.SIN, DefaultTableHolder.COS);
+    }
+
+    /**
+     * 使用指定分段数的查找表
+     *
+     * @param tableSize [0, PI] 上的分段数, 误差约为 (PI / tableSize)^2 / 8 倍轨迹半径
+     */
+    public static SunArcGeometry withLookupTable(int tableSize) {
+        if (tableSize < 2) {
+            throw new IllegalArgumentException("tableSize < 2: " + tableSize);
+        }
+        if (tableSize == DEFAULT_TABLE_SIZE) {
+            return withLookupTable();
+        }
+        return new SunArcGeometry(createTable(tableSize, true), createTable(tableSize, false));
+    }
+
+    private static float[] createTable(int tableSize, boolean sin) {
+        float[] table = new float[tableSize + 1];
+        for (int i = 0; i <= tableSize; i++) {
+            double angle = Math.PI * i / tableSize;
+            table[i] = (float) (sin ? Math.sin(angle) : Math.cos(angle));
+        }
+        return table;
+    }
+
+    /**
+     * 是否使用查找表
+     */
+    public boolean usesLookupTable() {
+        return sinTable != null;
+    }
+
+    /**
+     * 设置轨迹位置
+     *
+     * @param left   轨迹左端的x坐标
+     * @param top    轨迹最高点的y坐标
+     * @param bottom 轨迹两端(地平线)的y坐标
+     * @param radius 轨迹半径
+     */
+    public void setTrack(float left, float top, float bottom, float radius) {
+        this.left = left;
+        this.top = top;
+        this.bottom = bottom;
+        this.radius = radius;
+    }
+
+    public float getLeft() {
+        return left;
+    }
+
+    public float getTop() {
+        return top;
+    }
+
+    public float getBottom() {
+        return bottom;
+    }
+
+    public float getRadius() {
+        return radius;
+    }
+
+    /**
+     * 将比率限制在 [0, 1] 内
+     */
+    public static float clampRatio(float ratio) {
+        return ratio <= 0 ? 0 : (ratio > 1.0f ? 1 : ratio);
+    }
+
+    /**
+     * cos(PI * ratio)
+     */
+    public float cos(float ratio) {
+        if (sinTable == null || ratio < 0 || ratio > 1) {
+            return (float) Math.cos(Math.PI * ratio);
+        }
+        return lookup(cosTable, ratio);
+    }
+
+    /**
+     * sin(PI * ratio)
+     */
+    public float sin(float ratio) {
+        if (sinTable == null || ratio < 0 || ratio > 1) {
+            return (float) Math.sin(Math.PI * ratio);
+        }
+        return lookup(sinTable, ratio);
+    }
+
+    private float lookup(float[] table, float ratio) {
+        float position = ratio * tableSize;
+        int index = (int) position;
+        if (index >= tableSize) {
+            return table[tableSize];
+        }
+        float fraction = position - index;
+        return table[index] + (table[index + 1] - table[index]) * fraction;
+    }
+
+    /**
+     * 太阳中心的x坐标
+     */
+    public float sunX(float ratio) {
+        return left + radius - radius * cos(ratio);
+    }
+
+    /**
+     * 太阳中心的y坐标
+     */
+    public float sunY(float ratio) {
+        return bottom - radius * sin(ratio);
+    }
+
+    /**
+     * 太阳中心坐标, 写入 out[offset], out[offset + 1]
+     */
+    public void sunPosition(float ratio, float[] out, int offset) {
+        out[offset] = sunX(ratio);
+        out[offset + 1] = sunY(ratio);
+    }
+
+    /**
+     * 阴影右下角(太阳正下方的地平线)坐标, 写入 out[offset], out[offset + 1]
+     */
+    public void shadowEnd(float ratio, float[] out, int offset) {
+        out[offset] = sunX(ratio);
+        out[offset + 1] = bottom;
+    }
+
+    /**
+     * 太阳的外接矩形, 按 left, top, right, bottom 写入 out[offset] ... out[offset + 3]
+     *
+     * @param extent 太阳中心到外接矩形边的距离, 即太阳半径加描边宽度
+     */
+    public void sunBounds(float ratio, float extent, float[] out, int offset) {
+        float x = sunX(ratio);
+        float y = sunY(ratio);
+        out[offset] = x - extent;
+        out[offset + 1] = y - extent;
+        out[offset + 2] = x + extent;
+        out[offset + 3] = y + extent;
+    }
+
+    /**
+     * 比率从 fromRatio 变为 toRatio 时需要重绘的区域: 新旧太阳的外接矩形, 以及两者之间弧线下方的阴影变化区域.
+     * 按 left, top, right, bottom 写入 out[offset] ... out[offset + 3]
+     *
+     * @param extent 太阳中心到外接矩形边的距离
+     */
+    public void changedBounds(float fromRatio, float toRatio, float extent, float[] out, int offset) {
+        float fromX = sunX(fromRatio);
+        float fromY = sunY(fromRatio);
+        float toX = sunX(toRatio);
+        float toY = sunY(toRatio);
+        float minX = Math.min(fromX, toX);
+        float maxX = Math.max(fromX, toX);
+        float minY = Math.min(fromY, toY);
+        // 跨过最高点时以轨迹顶部为上边界
+        boolean crossesTop = (fromRatio - 0.5f) * (toRatio - 0.5f) <= 0;
+        float shadowTop = crossesTop ? top : minY;
+        out[offset] = minX - extent;
+        out[offset + 1] = Math.min(minY - extent, shadowTop);
+        out[offset + 2] = maxX + extent;
+        out[offset + 3] = Math.max(Math.max(fromY, toY) + extent, bottom);
+    }
+
+    // 默认查找表, 首次使用时创建
+    private static final class DefaultTableHolder {
+        static final float[] SIN = createTable(DEFAULT_TABLE_SIZE, true);
+        static final float[] COS = createTable(DEFAULT_TABLE_SIZE, false);
+    }
+}
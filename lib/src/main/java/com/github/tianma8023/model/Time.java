@@ -2,6 +2,9 @@ package com.github.tianma8023.model;
 
 /**
  * 日出日落相关时间
+ *
+ * 用于 {@link com.github.tianma8023.formatter.SunriseSunsetLabelFormatter} 的参数, 可变且不会被 View 持有;
+ * 设置 View 的日出日落时间请使用不可变的 {@link TimeOfDay}
  */
 public class Time {
 
@@ -21,7 +24,19 @@ public class Time {
         this.minute = minute;
     }
 
+    public Time(TimeOfDay time) {
+        this(time.getHour(), time.getMinute());
+    }
+
     public int transformToMinutes() {
         return hour * MINUTES_PER_HOUR + minute;
     }
+
+    /**
+     * 转换为不可变的 {@link TimeOfDay}, 超出一天范围的时间限制在 00:00 ~ 23:59 之间
+     */
+    public TimeOfDay toTimeOfDay() {
+        int minutes = transformToMinutes();
+        return TimeOfDay.ofMinuteOfDay(Math.max(0, Math.min(TimeOfDay.MINUTES_PER_DAY - 1, minutes)));
+    }
 }
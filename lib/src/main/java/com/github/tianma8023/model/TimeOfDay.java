@@ -0,0 +1,150 @@
+package com.github.tianma8023.model;
+
+/**
+ * 不可变的一天内时间, 内部以当天秒数存储.
+ * 整分钟的实例通过 {@link #of(int, int)} 从预分配的池中获取, 不会产生新对象
+ */
+public final class TimeOfDay implements Comparable<TimeOfDay> {
+
+    public static final int HOURS_PER_DAY = 24;
+    public static final int MINUTES_PER_HOUR = 60;
+    public static final int SECONDS_PER_MINUTE = 60;
+    public static final int MINUTES_PER_DAY = HOURS_PER_DAY * MINUTES_PER_HOUR;
+    public static final int SECONDS_PER_DAY = MINUTES_PER_DAY * SECONDS_PER_MINUTE;
+
+    // 一天中所有整分钟的实例池
+    private static final TimeOfDay[] MINUTE_POOL = new TimeOfDay[MINUTES_PER_DAY];
+
+    static {
+        for (int i = 0; i < MINUTES_PER_DAY; i++) {
+            MINUTE_POOL[i] = new TimeOfDay(i * SECONDS_PER_MINUTE);
+        }
+    }
+
+    public static final TimeOfDay MIDNIGHT = MINUTE_POOL[0];
+    public static final TimeOfDay NOON = MINUTE_POOL[12 * MINUTES_PER_HOUR];
+
+    /**
+     * 当天的秒数, [0, SECONDS_PER_DAY)
+     */
+    private final int secondOfDay;
+
+    private TimeOfDay(int secondOfDay) {
+        this.secondOfDay = secondOfDay;
+    }
+
+    public static TimeOfDay of(int hour, int minute) {
+        checkRange(hour, HOURS_PER_DAY, "hour");
+        checkRange(minute, MINUTES_PER_HOUR, "minute");
+        return MINUTE_POOL[hour * MINUTES_PER_HOUR + minute];
+    }
+
+    public static TimeOfDay of(int hour, int minute, int second) {
+        checkRange(second, SECONDS_PER_MINUTE, "second");
+        if (second == 0) {
+            return of(hour, minute);
+        }
+        checkRange(hour, HOURS_PER_DAY, "hour");
+        checkRange(minute, MINUTES_PER_HOUR, "minute");
+        return new TimeOfDay((hour * MINUTES_PER_HOUR + minute) * SECONDS_PER_MINUTE + second);
+    }
+
+    public static TimeOfDay ofMinuteOfDay(int minuteOfDay) {
+        checkRange(minuteOfDay, MINUTES_PER_DAY, "minuteOfDay");
+        return MINUTE_POOL[minuteOfDay];
+    }
+
+    public static TimeOfDay ofSecondOfDay(int secondOfDay) {
+        checkRange(secondOfDay, SECONDS_PER_DAY, "secondOfDay");
+        if (secondOfDay % SECONDS_PER_MINUTE == 0) {
+            return MINUTE_POOL[secondOfDay / SECONDS_PER_MINUTE];
+        }
+        return new TimeOfDay(secondOfDay);
+    }
+
+    private static void checkRange(int value, int bound, String name) {
+        if (value < 0 || value >= bound) {
+            throw new IllegalArgumentException(name + " out of range [0, " + bound + "): " + value);
+        }
+    }
+
+    public int getHour() {
+        return secondOfDay / (MINUTES_PER_HOUR * SECONDS_PER_MINUTE);
+    }
+
+    public int getMinute() {
+        return secondOfDay / SECONDS_PER_MINUTE % MINUTES_PER_HOUR;
+    }
+
+    public int getSecond() {
+        return secondOfDay % SECONDS_PER_MINUTE;
+    }
+
+    public int toMinuteOfDay() {
+        return secondOfDay / SECONDS_PER_MINUTE;
+    }
+
+    public int toSecondOfDay() {
+        return secondOfDay;
+    }
+
+    /**
+     * 从当前时间到 other 经过的分钟数, other 更早时为负数
+     */
+    public int minutesUntil(TimeOfDay other) {
+        return other.toMinuteOfDay() - toMinuteOfDay();
+    }
+
+    /**
+     * 从当前时间到 other 经过的秒数, other 更早时为负数
+     */
+    public int secondsUntil(TimeOfDay other) {
+        return other.secondOfDay - secondOfDay;
+    }
+
+    public boolean isBefore(TimeOfDay other) {
+        return secondOfDay < other.secondOfDay;
+    }
+
+    public boolean isAfter(TimeOfDay other) {
+        return secondOfDay > other.secondOfDay;
+    }
+
+    @Override
+    public int compareTo(TimeOfDay other) {
+        return compare(secondOfDay, other.secondOfDay);
+    }
+
+    private static int compare(int x, int y) {
+        return (x < y) ? -1 : ((x == y) ? 0 : 1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof TimeOfDay && ((TimeOfDay) o).secondOfDay == secondOfDay);
+    }
+
+    @Override
+    public int hashCode() {
+        return secondOfDay;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(8);
+        appendTwoDigits(sb, getHour()).append(':');
+        appendTwoDigits(sb, getMinute());
+        int second = getSecond();
+        if (second != 0) {
+            appendTwoDigits(sb.append(':'), second);
+        }
+        return sb.toString();
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder sb, int value) {
+        if (value < 10) {
+            sb.append('0');
+        }
+        return sb.append(value);
+    }
+}
@@ -0,0 +1,263 @@
+package com.github.tianma8023.solar;
+
+import java.util.Arrays;
+import java.util.TimeZone;
+
+/**
+ * 有容量上限的日出日落结果缓存, 线程安全, 按最近最少使用(LRU)淘汰.
+ * <p>
+ * 经纬度按 {@link #CELL_DEGREES} 量化为网格, 与日期及UTC偏移一起打包为一个 long 作为键,
+ * 网格内的所有地点共用网格中心的计算结果(相差不超过数秒). 值为 {@link SolarCalculator#pack} 打包的 int,
+ * 键和值都保存在基本类型数组中, 命中时只需一次哈希查找, 不会创建对象.
+ * <p>
+ * 未命中时在锁外计算, 多个线程同时计算同一个键时结果相同, 只会保存一份.
+ */
+public final class SolarCache {
+
+    /**
+     * 经纬度网格的大小(度), 约1.1km
+     */
+    public static final double CELL_DEGREES = 0.01;
+
+    // 键的各部分位数: 纬度网格15位, 经度网格16位, UTC偏移11位, 日期22位
+    private static final int LATITUDE_BITS = 15;
+    private static final int LONGITUDE_BITS = 16;
+    private static final int OFFSET_BITS = 11;
+    private static final int EPOCH_DAY_BITS = 22;
+    private static final int MAX_OFFSET_MINUTES = 1 << (OFFSET_BITS - 1);
+    private static final int MAX_EPOCH_DAY = 1 << (EPOCH_DAY_BITS - 1);
+
+    private static final int NONE = -1;
+
+    private final int capacity;
+
+    // 条目, 下标 [0, size)
+    private final long[] keys;
+    private final int[] values;
+    // 哈希桶及桶内链表
+    private final int[] buckets;
+    private final int[] bucketNext;
+    private final int bucketMask;
+    // LRU 双向链表, head 为最近使用
+    private final int[] newer;
+    private final int[] older;
+    private int head = NONE;
+    private int tail = NONE;
+    private int size;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * @param capacity 最多缓存的条目数
+     */
+    public SolarCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity <= 0: " + capacity);
+        }
+        this.capacity = capacity;
+        keys = new long[capacity];
+        values = new int[capacity];
+        bucketNext = new int[capacity];
+        newer = new int[capacity];
+        older = new int[capacity];
+        // 桶数为不小于 2 * capacity 的2的幂, 保持链表很短
+        int bucketCount = Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1;
+        buckets = new int[bucketCount];
+        Arrays.fill(buckets, NONE);
+        bucketMask = bucketCount - 1;
+    }
+
+    /**
+     * 获取指定地点和日期的日出日落
+     *
+     * @see SolarCalculator#compute(double, double, int, int, int, TimeZone)
+     */
+    public SolarDay get(double latitude, double longitude, int year, int month, int dayOfMonth, TimeZone zone) {
+        int epochDay = SolarCalculator.epochDay(year, month, dayOfMonth);
+        return SolarDay.fromPacked(getPacked(latitude, longitude, epochDay, SolarCalculator.utcOffsetMinutes(zone, epochDay)));
+    }
+
+    /**
+     * 获取打包形式的日出日落, 命中时不分配任何对象
+     *
+     * @see SolarCalculator#computePacked(double, double, int, int)
+     */
+    public int getPacked(double latitude, double longitude, int epochDay, int utcOffsetMinutes) {
+        long key = key(latitude, longitude, epochDay, utcOffsetMinutes);
+        synchronized (this) {
+            int index = find(key);
+            if (index != NONE) {
+                hitCount++;
+                moveToHead(index);
+                return values[index];
+            }
+            missCount++;
+        }
+        int packed = SolarCalculator.computePacked(cellCenter(latitude, 90), cellCenter(longitude, 180),
+                epochDay, utcOffsetMinutes);
+        synchronized (this) {
+            // 计算期间其他线程可能已经放入
+            if (find(key) == NONE) {
+                insert(key, packed);
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * 键: 纬度网格 | 经度网格 | UTC偏移 | 日期
+     */
+    static long key(double latitude, double longitude, int epochDay, int utcOffsetMinutes) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Invalid location: " + latitude + ", " + longitude);
+        }
+        if (utcOffsetMinutes <= -MAX_OFFSET_MINUTES || utcOffsetMinutes >= MAX_OFFSET_MINUTES) {
+            throw new IllegalArgumentException("utcOffsetMinutes out of range: " + utcOffsetMinutes);
+        }
+        if (epochDay <= -MAX_EPOCH_DAY || epochDay >= MAX_EPOCH_DAY) {
+            throw new IllegalArgumentException("epochDay out of range: " + epochDay);
+        }
+        long latitudeCell = cell(latitude + 90);
+        long longitudeCell = cell(longitude + 180);
+        long offset = utcOffsetMinutes + MAX_OFFSET_MINUTES;
+        long day = epochDay + MAX_EPOCH_DAY;
+        return (((latitudeCell << LONGITUDE_BITS | longitudeCell) << OFFSET_BITS | offset) << EPOCH_DAY_BITS) | day;
+    }
+
+    private static long cell(double degrees) {
+        return (long) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    // 网格中心的经纬度, 限制在 [-limit, limit] 内
+    private static double cellCenter(double degrees, double limit) {
+        double center = (cell(degrees + limit) + 0.5) * CELL_DEGREES - limit;
+        return Math.max(-limit, Math.min(limit, center));
+    }
+
+    private int bucketOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & bucketMask;
+    }
+
+    private int find(long key) {
+        for (int i = buckets[bucketOf(key)]; i != NONE; i = bucketNext[i]) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return NONE;
+    }
+
+    private void insert(long key, int packed) {
+        int index;
+        if (size < capacity) {
+            index = size++;
+        } else {
+            // 淘汰最近最少使用的条目, 复用其位置
+            index = tail;
+            unlinkLru(index);
+            unlinkBucket(index);
+            evictionCount++;
+        }
+        keys[index] = key;
+        values[index] = packed;
+        int bucket = bucketOf(key);
+        bucketNext[index] = buckets[bucket];
+        buckets[bucket] = index;
+        linkHead(index);
+    }
+
+    private void unlinkBucket(int index) {
+        int bucket = bucketOf(keys[index]);
+        int i = buckets[bucket];
+        if (i == index) {
+            buckets[bucket] = bucketNext[index];
+            return;
+        }
+        while (bucketNext[i] != index) {
+            i = bucketNext[i];
+        }
+        bucketNext[i] = bucketNext[index];
+    }
+
+    private void moveToHead(int index) {
+        if (head != index) {
+            unlinkLru(index);
+            linkHead(index);
+        }
+    }
+
+    private void unlinkLru(int index) {
+        int n = newer[index];
+        int o = older[index];
+        if (n != NONE) {
+            older[n] = o;
+        } else {
+            head = o;
+        }
+        if (o != NONE) {
+            newer[o] = n;
+        } else {
+            tail = n;
+        }
+    }
+
+    private void linkHead(int index) {
+        newer[index] = NONE;
+        older[index] = head;
+        if (head != NONE) {
+            newer[head] = index;
+        }
+        head = index;
+        if (tail == NONE) {
+            tail = index;
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * 清零命中、未命中及淘汰次数
+     */
+    public synchronized void resetStats() {
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+    }
+
+    /**
+     * 清空缓存, 统计数据不变
+     */
+    public synchronized void clear() {
+        Arrays.fill(buckets, NONE);
+        head = NONE;
+        tail = NONE;
+        size = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SolarCache{size=" + size + "/" + capacity + ", hits=" + hitCount
+                + ", misses=" + missCount + ", evictions=" + evictionCount + "}";
+    }
+}
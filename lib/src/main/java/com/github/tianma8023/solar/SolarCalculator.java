@@ -0,0 +1,223 @@
+package com.github.tianma8023.solar;
+
+import com.github.tianma8023.model.TimeOfDay;
+
+import java.util.TimeZone;
+
+/**
+ * 纯Java实现的日出日落计算, 基于NOAA太阳位置算法(精度约1分钟).
+ * <p>
+ * 计算结果为当地时区的当天分钟数, 可通过 {@link #computePacked} 以打包的int形式获取,
+ * 以避免为每个结果创建对象. 极昼/极夜时日出日落分钟数分别为
+ * {@link #POLAR_DAY} / {@link #POLAR_NIGHT}.
+ * <p>
+ * 所有方法都是无状态且线程安全的.
+ */
+public final class SolarCalculator {
+
+    /**
+     * 日出日落天顶角(度), 包含大气折射及太阳视半径的修正
+     */
+    public static final double ZENITH_OFFICIAL = 90.833;
+    /**
+     * 民用晨昏蒙影天顶角(度)
+     */
+    public static final double ZENITH_CIVIL = 96.0;
+    /**
+     * 航海晨昏蒙影天顶角(度)
+     */
+    public static final double ZENITH_NAUTICAL = 102.0;
+    /**
+     * 天文晨昏蒙影天顶角(度)
+     */
+    public static final double ZENITH_ASTRONOMICAL = 108.0;
+
+    /**
+     * 极昼: 太阳全天都在地平线之上
+     */
+    public static final int POLAR_DAY = -1;
+    /**
+     * 极夜: 太阳全天都在地平线之下
+     */
+    public static final int POLAR_NIGHT = -2;
+
+    static final int MINUTES_PER_DAY = TimeOfDay.MINUTES_PER_DAY;
+    static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    private static final long MILLIS_PER_MINUTE = 60 * 1000;
+    // 1970-01-01 00:00 UTC 的儒略日
+    static final double JULIAN_DAY_EPOCH = 2440587.5;
+
+    private SolarCalculator() {
+    }
+
+    /**
+     * 计算指定地点和日期的日出日落时间
+     *
+     * @param latitude   纬度, 北纬为正
+     * @param longitude  经度, 东经为正
+     * @param year       年
+     * @param month      月, 1-12
+     * @param dayOfMonth 日, 1-31
+     * @param zone       结果所在的时区
+     */
+    public static SolarDay compute(double latitude, double longitude,
+                                   int year, int month, int dayOfMonth, TimeZone zone) {
+        int epochDay = epochDay(year, month, dayOfMonth);
+        return SolarDay.fromPacked(computePacked(latitude, longitude, epochDay, utcOffsetMinutes(zone, epochDay)));
+    }
+
+    /**
+     * 计算日出日落, 结果以 {@link #pack} 的形式返回, 不分配任何对象
+     *
+     * @param epochDay         自1970-01-01起的天数(当地日期)
+     * @param utcOffsetMinutes 当地时区当天的UTC偏移(分钟)
+     */
+    public static int computePacked(double latitude, double longitude, int epochDay, int utcOffsetMinutes) {
+        return computePacked(latitude, longitude, epochDay, utcOffsetMinutes, ZENITH_OFFICIAL);
+    }
+
+    /**
+     * 按指定的天顶角计算日出日落(或晨昏蒙影的开始与结束)
+     *
+     * @param zenith 天顶角(度), 如 {@link #ZENITH_OFFICIAL}, {@link #ZENITH_CIVIL}
+     */
+    public static int computePacked(double latitude, double longitude, int epochDay,
+                                    int utcOffsetMinutes, double zenith) {
+        // 以当地正午时刻计算太阳赤纬与时差
+        double julianDay = JULIAN_DAY_EPOCH + epochDay + (MINUTES_PER_DAY / 2 - utcOffsetMinutes) / (double) MINUTES_PER_DAY;
+        double t = julianCentury(julianDay);
+        double declinationRad = declinationRadians(t);
+        double latitudeRad = Math.toRadians(latitude);
+        return packEvents(Math.sin(latitudeRad), Math.cos(latitudeRad), longitude,
+                Math.sin(declinationRad), Math.cos(declinationRad),
+                equationOfTime(t), utcOffsetMinutes, Math.cos(Math.toRadians(zenith)));
+    }
+
+    /**
+     * 儒略日对应的J2000儒略世纪数
+     */
+    static double julianCentury(double julianDay) {
+        return (julianDay - 2451545.0) / 36525.0;
+    }
+
+    /**
+     * 太阳赤纬(弧度)
+     */
+    static double declinationRadians(double t) {
+        double anomalyRad = Math.toRadians(meanAnomaly(t));
+        double center = Math.sin(anomalyRad) * (1.914602 - t * (0.004817 + 0.000014 * t))
+                + Math.sin(2 * anomalyRad) * (0.019993 - 0.000101 * t)
+                + Math.sin(3 * anomalyRad) * 0.000289;
+        double apparentLongitude = meanLongitude(t) + center - 0.00569 - 0.00478 * Math.sin(omegaRadians(t));
+        return Math.asin(Math.sin(obliquityRadians(t)) * Math.sin(Math.toRadians(apparentLongitude)));
+    }
+
+    /**
+     * 时差(分钟), 即真太阳时与平太阳时之差
+     */
+    static double equationOfTime(double t) {
+        double eccentricity = 0.016708634 - t * (0.000042037 + 0.0000001267 * t);
+        double anomalyRad = Math.toRadians(meanAnomaly(t));
+        double longitudeRad = Math.toRadians(meanLongitude(t));
+        double y = Math.tan(obliquityRadians(t) / 2);
+        y *= y;
+        return 4 * Math.toDegrees(y * Math.sin(2 * longitudeRad)
+                - 2 * eccentricity * Math.sin(anomalyRad)
+                + 4 * eccentricity * y * Math.sin(anomalyRad) * Math.cos(2 * longitudeRad)
+                - 0.5 * y * y * Math.sin(4 * longitudeRad)
+                - 1.25 * eccentricity * eccentricity * Math.sin(2 * anomalyRad));
+    }
+
+    // 太阳平黄经(度)
+    private static double meanLongitude(double t) {
+        return normalizeDegrees(280.46646 + t * (36000.76983 + t * 0.0003032));
+    }
+
+    // 太阳平近点角(度)
+    private static double meanAnomaly(double t) {
+        return 357.52911 + t * (35999.05029 - 0.0001537 * t);
+    }
+
+    private static double omegaRadians(double t) {
+        return Math.toRadians(125.04 - 1934.136 * t);
+    }
+
+    // 修正后的黄赤交角(弧度)
+    private static double obliquityRadians(double t) {
+        double meanObliquity = 23.0 + (26.0 + (21.448 - t * (46.815 + t * (0.00059 - t * 0.001813))) / 60.0) / 60.0;
+        return Math.toRadians(meanObliquity + 0.00256 * Math.cos(omegaRadians(t)));
+    }
+
+    /**
+     * 由太阳赤纬和时差计算日出日落分钟数并打包
+     */
+    static int packEvents(double sinLatitude, double cosLatitude, double longitude,
+                          double sinDeclination, double cosDeclination,
+                          double equationOfTime, int utcOffsetMinutes, double cosZenith) {
+        double cosHourAngle = (cosZenith - sinLatitude * sinDeclination) / (cosLatitude * cosDeclination);
+        if (cosHourAngle > 1) {
+            return pack(POLAR_NIGHT, POLAR_NIGHT);
+        }
+        if (cosHourAngle < -1) {
+            return pack(POLAR_DAY, POLAR_DAY);
+        }
+        double halfDayMinutes = 4 * Math.toDegrees(Math.acos(cosHourAngle));
+        double solarNoon = MINUTES_PER_DAY / 2 - 4 * longitude - equationOfTime + utcOffsetMinutes;
+        return pack(toMinuteOfDay(solarNoon - halfDayMinutes), toMinuteOfDay(solarNoon + halfDayMinutes));
+    }
+
+    /**
+     * 将日出日落分钟数打包为一个int, 高16位为日出, 低16位为日落
+     */
+    public static int pack(int sunriseMinutes, int sunsetMinutes) {
+        return (sunriseMinutes << 16) | (sunsetMinutes & 0xFFFF);
+    }
+
+    /**
+     * 打包值中的日出分钟数, 极昼/极夜时为 {@link #POLAR_DAY} / {@link #POLAR_NIGHT}
+     */
+    public static int sunriseOf(int packed) {
+        return packed >> 16;
+    }
+
+    /**
+     * 打包值中的日落分钟数, 极昼/极夜时为 {@link #POLAR_DAY} / {@link #POLAR_NIGHT}
+     */
+    public static int sunsetOf(int packed) {
+        return (short) packed;
+    }
+
+    /**
+     * 公历日期对应的自1970-01-01起的天数
+     *
+     * @param month 月, 1-12
+     */
+    public static int epochDay(int year, int month, int dayOfMonth) {
+        // Howard Hinnant 的 days_from_civil 算法
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + dayOfMonth - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * 时区在指定日期(当地正午)的UTC偏移分钟数, 已包含夏令时
+     */
+    public static int utcOffsetMinutes(TimeZone zone, int epochDay) {
+        long localNoon = epochDay * MILLIS_PER_DAY + MILLIS_PER_DAY / 2;
+        return (int) (zone.getOffset(localNoon - zone.getRawOffset()) / MILLIS_PER_MINUTE);
+    }
+
+    private static int toMinuteOfDay(double minutes) {
+        int rounded = (int) Math.floor(minutes + 0.5);
+        rounded %= MINUTES_PER_DAY;
+        return rounded < 0 ? rounded + MINUTES_PER_DAY : rounded;
+    }
+
+    private static double normalizeDegrees(double degrees) {
+        degrees %= 360;
+        return degrees < 0 ? degrees + 360 : degrees;
+    }
+}
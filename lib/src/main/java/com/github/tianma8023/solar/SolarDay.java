@@ -0,0 +1,90 @@
+package com.github.tianma8023.solar;
+
+import com.github.tianma8023.model.TimeOfDay;
+
+/**
+ * 某地某天的日出日落结果
+ */
+public final class SolarDay {
+
+    /**
+     * 正常日出日落
+     */
+    public static final int TYPE_NORMAL = 0;
+    /**
+     * 极昼
+     */
+    public static final int TYPE_POLAR_DAY = 1;
+    /**
+     * 极夜
+     */
+    public static final int TYPE_POLAR_NIGHT = 2;
+
+    private static final SolarDay POLAR_DAY = new SolarDay(TYPE_POLAR_DAY,
+            TimeOfDay.MIDNIGHT, TimeOfDay.ofMinuteOfDay(TimeOfDay.MINUTES_PER_DAY - 1));
+    private static final SolarDay POLAR_NIGHT = new SolarDay(TYPE_POLAR_NIGHT,
+            TimeOfDay.MIDNIGHT, TimeOfDay.MIDNIGHT);
+
+    private final int type;
+    private final TimeOfDay sunrise;
+    private final TimeOfDay sunset;
+
+    private SolarDay(int type, TimeOfDay sunrise, TimeOfDay sunset) {
+        this.type = type;
+        this.sunrise = sunrise;
+        this.sunset = sunset;
+    }
+
+    /**
+     * 由 {@link SolarCalculator#computePacked} 的结果创建
+     */
+    public static SolarDay fromPacked(int packed) {
+        int sunrise = SolarCalculator.sunriseOf(packed);
+        if (sunrise == SolarCalculator.POLAR_DAY) {
+            return POLAR_DAY;
+        }
+        if (sunrise == SolarCalculator.POLAR_NIGHT) {
+            return POLAR_NIGHT;
+        }
+        return new SolarDay(TYPE_NORMAL, TimeOfDay.ofMinuteOfDay(sunrise),
+                TimeOfDay.ofMinuteOfDay(SolarCalculator.sunsetOf(packed)));
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public boolean isPolarDay() {
+        return type == TYPE_POLAR_DAY;
+    }
+
+    public boolean isPolarNight() {
+        return type == TYPE_POLAR_NIGHT;
+    }
+
+    /**
+     * 日出时间, 极昼时为 00:00, 极夜时为 00:00
+     */
+    public TimeOfDay getSunrise() {
+        return sunrise;
+    }
+
+    /**
+     * 日落时间, 极昼时为 23:59, 极夜时为 00:00(与日出相同, 即白昼时长为0)
+     */
+    public TimeOfDay getSunset() {
+        return sunset;
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case TYPE_POLAR_DAY:
+                return "SolarDay{polar day}";
+            case TYPE_POLAR_NIGHT:
+                return "SolarDay{polar night}";
+            default:
+                return "SolarDay{sunrise=" + sunrise + ", sunset=" + sunset + "}";
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.github.tianma8023.solar;
+
+import java.util.Arrays;
+import java.util.TimeZone;
+
+/**
+ * 多个地点的日出日落事件索引, 用于查找某一时刻之后的下一次日出或日落, 以安排提醒或 View 的更新.
+ * <p>
+ * 由 {@link SolarTables} 生成的日出日落表创建, 每个地点的事件按时间升序保存在同一个 int 数组的连续区间中,
+ * 单个地点的查询为二分查找, 时间复杂度 O(log k). 跨地点的查询使用 {@link Cursor},
+ * 以最小堆按时间顺序逐个遍历所有地点的事件, 每前进一个事件 O(log n). 事件精确到分钟,
+ * 极昼/极夜的日期没有事件. 索引不可变, 可以在多个线程之间共享.
+ */
+public final class SolarEventIndex {
+
+    /**
+     * 日出事件
+     */
+    public static final int EVENT_SUNRISE = 0;
+    /**
+     * 日落事件
+     */
+    public static final int EVENT_SUNSET = 1;
+
+    private static final long MILLIS_PER_MINUTE = 60 * 1000L;
+    // 事件时间以分钟保存, 左移1位后仍需在 int 范围内
+    private static final int MAX_EPOCH_MINUTE = Integer.MAX_VALUE >> 1;
+    private static final int MIN_EPOCH_MINUTE = Integer.MIN_VALUE >> 1;
+
+    // 第 i 个地点的事件为 events[starts[i]] ... events[starts[i + 1] - 1],
+    // 每个元素为 (自1970-01-01 00:00 UTC起的分钟数 << 1) | 事件类型, 同一分钟内日出在前
+    private final int[] events;
+    private final int[] starts;
+
+    private SolarEventIndex(int[] events, int[] starts) {
+        this.events = events;
+        this.starts = starts;
+    }
+
+    /**
+     * 由 {@link SolarTables#fill} 生成的日出日落表创建
+     *
+     * @param sunrise       日出表, 第 i 个地点第 d 天的下标为 {@code i * dayCount + d}
+     * @param sunset        日落表
+     * @param zones         各地点时区, 与生成表时相同
+     * @param startEpochDay 表的起始日期, 自1970-01-01起的天数
+     * @param dayCount      每个地点的天数
+     */
+    public static SolarEventIndex fromTables(short[] sunrise, short[] sunset, TimeZone[] zones,
+                                             int startEpochDay, int dayCount) {
+        checkTable(sunrise.length, zones.length, dayCount, "sunrise");
+        checkTable(sunset.length, zones.length, dayCount, "sunset");
+        return build(sunrise, sunset, null, zones, startEpochDay, dayCount);
+    }
+
+    /**
+     * 由 {@link SolarTables#fillPacked} 生成的打包日出日落表创建
+     *
+     * @see #fromTables(short[], short[], TimeZone[], int, int)
+     */
+    public static SolarEventIndex fromPackedTable(int[] packed, TimeZone[] zones, int startEpochDay, int dayCount) {
+        checkTable(packed.length, zones.length, dayCount, "packed");
+        return build(null, null, packed, zones, startEpochDay, dayCount);
+    }
+
+    private static void checkTable(int length, int locationCount, int dayCount, String name) {
+        if (dayCount < 0) {
+            throw new IllegalArgumentException("dayCount < 0: " + dayCount);
+        }
+        if (length < locationCount * dayCount) {
+            throw new IllegalArgumentException(name + " table is too small");
+        }
+    }
+
+    private static SolarEventIndex build(short[] sunrise, short[] sunset, int[] packed, TimeZone[] zones,
+                                         int startEpochDay, int dayCount) {
+        int locationCount = zones.length;
+        int[] events = new int[locationCount * dayCount * 2];
+        int[] starts = new int[locationCount + 1];
+        int count = 0;
+        for (int location = 0; location < locationCount; location++) {
+            TimeZone zone = zones[location];
+            int base = location * dayCount;
+            int start = count;
+            for (int d = 0; d < dayCount; d++) {
+                int epochDay = startEpochDay + d;
+                int offset = SolarCalculator.utcOffsetMinutes(zone, epochDay);
+                int rise = packed != null ? SolarCalculator.sunriseOf(packed[base + d]) : sunrise[base + d];
+                int set = packed != null ? SolarCalculator.sunsetOf(packed[base + d]) : sunset[base + d];
+                // 极昼/极夜时为负数, 没有事件
+                if (rise >= 0) {
+                    events[count++] = encode(epochDay, rise, offset, EVENT_SUNRISE);
+                }
+                if (set >= 0) {
+                    events[count++] = encode(epochDay, set, offset, EVENT_SUNSET);
+                }
+            }
+            // 时区偏移较大时日落可能在日出之前, 排序后按实际时间排列
+            Arrays.sort(events, start, count);
+            starts[location + 1] = count;
+        }
+        return new SolarEventIndex(Arrays.copyOf(events, count), starts);
+    }
+
+    private static int encode(int epochDay, int minuteOfDay, int utcOffsetMinutes, int type) {
+        long epochMinute = (long) epochDay * SolarCalculator.MINUTES_PER_DAY + minuteOfDay - utcOffsetMinutes;
+        if (epochMinute < MIN_EPOCH_MINUTE || epochMinute > MAX_EPOCH_MINUTE) {
+            throw new IllegalArgumentException("epochDay out of range: " + epochDay);
+        }
+        return (int) epochMinute << 1 | type;
+    }
+
+    // 时间大于 afterMillis 的事件中最小的编码值
+    private static int firstEncodedAfter(long afterMillis) {
+        long minute = afterMillis / MILLIS_PER_MINUTE;
+        // 向下取整
+        if (afterMillis % MILLIS_PER_MINUTE < 0) {
+            minute--;
+        }
+        if (minute < MIN_EPOCH_MINUTE) {
+            return Integer.MIN_VALUE;
+        }
+        if (minute >= MAX_EPOCH_MINUTE) {
+            return Integer.MAX_VALUE;
+        }
+        return (int) (minute + 1) << 1;
+    }
+
+    public int getLocationCount() {
+        return starts.length - 1;
+    }
+
+    /**
+     * 地点的第一个事件在索引中的位置
+     */
+    public int getEventStart(int location) {
+        return starts[location];
+    }
+
+    /**
+     * 地点的最后一个事件在索引中的位置加1
+     */
+    public int getEventEnd(int location) {
+        return starts[location + 1];
+    }
+
+    /**
+     * 位置 position 处事件的时间, 自1970-01-01 00:00 UTC起的毫秒数
+     */
+    public long getEventTimeMillis(int position) {
+        return (events[position] >> 1) * MILLIS_PER_MINUTE;
+    }
+
+    /**
+     * 位置 position 处事件的类型, {@link #EVENT_SUNRISE} 或 {@link #EVENT_SUNSET}
+     */
+    public int getEventType(int position) {
+        return events[position] & 1;
+    }
+
+    /**
+     * 地点在 afterMillis 之后(不含)的下一个事件的位置, 二分查找, 没有时返回-1
+     *
+     * @param afterMillis 自1970-01-01 00:00 UTC起的毫秒数
+     */
+    public int nextEvent(int location, long afterMillis) {
+        int position = search(starts[location], starts[location + 1], firstEncodedAfter(afterMillis));
+        return position < starts[location + 1] ? position : -1;
+    }
+
+    /**
+     * 地点在 atOrBeforeMillis 及之前的最后一个事件的位置, 没有时返回-1
+     */
+    public int previousEvent(int location, long atOrBeforeMillis) {
+        int position = search(starts[location], starts[location + 1], firstEncodedAfter(atOrBeforeMillis)) - 1;
+        return position >= starts[location] ? position : -1;
+    }
+
+    // [from, to) 中第一个不小于 key 的位置
+    private int search(int from, int to, int key) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (events[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 创建按时间顺序遍历所有地点在 afterMillis 之后(不含)事件的游标
+     */
+    public Cursor cursor(long afterMillis) {
+        Cursor cursor = new Cursor(this);
+        cursor.rebuild(afterMillis);
+        return cursor;
+    }
+
+    /**
+     * 按时间顺序遍历所有地点事件的游标. 以各地点的下一个事件为键维护最小堆,
+     * 查看当前事件 O(1), 前进 O(log n), 遍历时不会创建对象. 不是线程安全的
+     * <pre>
+     * SolarEventIndex.Cursor cursor = index.cursor(now);
+     * while (cursor.hasEvent() &amp;&amp; cursor.getTimeMillis() &lt; end) {
+     *     schedule(cursor.getLocation(), cursor.getType(), cursor.getTimeMillis());
+     *     cursor.advance();
+     * }
+     * </pre>
+     */
+    public static final class Cursor {
+
+        private final SolarEventIndex index;
+        // 各地点下一个事件的位置
+        private final int[] positions;
+        // 尚有事件的地点组成的最小堆
+        private final int[] heap;
+        private int size;
+        // 已跳过的事件都不晚于该时刻
+        private long consumedMillis;
+
+        private Cursor(SolarEventIndex index) {
+            this.index = index;
+            int locationCount = index.getLocationCount();
+            positions = new int[locationCount];
+            heap = new int[locationCount];
+        }
+
+        /**
+         * 是否还有事件
+         */
+        public boolean hasEvent() {
+            return size > 0;
+        }
+
+        /**
+         * 当前事件的时间, 自1970-01-01 00:00 UTC起的毫秒数
+         */
+        public long getTimeMillis() {
+            return index.getEventTimeMillis(positions[current()]);
+        }
+
+        /**
+         * 当前事件所属的地点
+         */
+        public int getLocation() {
+            return current();
+        }
+
+        /**
+         * 当前事件的类型, {@link SolarEventIndex#EVENT_SUNRISE} 或 {@link SolarEventIndex#EVENT_SUNSET}
+         */
+        public int getType() {
+            return index.getEventType(positions[current()]);
+        }
+
+        private int current() {
+            if (size == 0) {
+                throw new IllegalStateException("No more events");
+            }
+            return heap[0];
+        }
+
+        /**
+         * 前进到下一个事件
+         */
+        public void advance() {
+            int location = current();
+            consumedMillis = Math.max(consumedMillis, getTimeMillis());
+            if (++positions[location] < index.starts[location + 1]) {
+                siftDown(0);
+            } else {
+                heap[0] = heap[--size];
+                siftDown(0);
+            }
+        }
+
+        /**
+         * 定位到 afterMillis 之后(不含)的第一个事件. 向后定位时每跳过一个事件 O(log n),
+         * 向前定位时重建堆 O(n log k)
+         */
+        public void seek(long afterMillis) {
+            if (afterMillis < consumedMillis) {
+                // 可能已经跳过了需要的事件
+                rebuild(afterMillis);
+                return;
+            }
+            while (size > 0 && getTimeMillis() <= afterMillis) {
+                advance();
+            }
+            consumedMillis = afterMillis;
+        }
+
+        private void rebuild(long afterMillis) {
+            consumedMillis = afterMillis;
+            size = 0;
+            for (int location = 0; location < positions.length; location++) {
+                int position = index.nextEvent(location, afterMillis);
+                if (position >= 0) {
+                    positions[location] = position;
+                    heap[size++] = location;
+                }
+            }
+            for (int i = (size >>> 1) - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        private void siftDown(int i) {
+            int location = heap[i];
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                int right = child + 1;
+                if (right < size && less(heap[right], heap[child])) {
+                    child = right;
+                }
+                if (!less(heap[child], location)) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = location;
+        }
+
+        // 按事件时间比较, 相同时按地点顺序
+        private boolean less(int a, int b) {
+            int eventA = index.events[positions[a]];
+            int eventB = index.events[positions[b]];
+            return eventA < eventB || (eventA == eventB && a < b);
+        }
+    }
+}
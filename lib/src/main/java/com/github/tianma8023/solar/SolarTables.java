@@ -0,0 +1,207 @@
+package com.github.tianma8023.solar;
+
+import java.util.TimeZone;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 批量生成多地点、多日期的日出日落表.
+ * <p>
+ * 结果写入调用方提供的基本类型数组, 第 i 个地点第 d 天的下标为 {@code i * dayCount + d},
+ * 数值为当地时区的当天分钟数(极昼/极夜时为 {@link SolarCalculator#POLAR_DAY} /
+ * {@link SolarCalculator#POLAR_NIGHT}). 计算按地点拆分到 {@link ForkJoinPool} 中并行执行,
+ * 过程中不会为单个结果创建对象.
+ * <p>
+ * 太阳赤纬与时差只依赖日期, 每天只计算一次(UTC 0点), 各地点按当地正午对相邻两天线性插值,
+ * 与 {@link SolarCalculator#computePacked} 的结果相差不超过1分钟.
+ */
+public final class SolarTables {
+
+    // 每个子任务处理的最少地点数
+    private static final int LOCATIONS_PER_TASK = 64;
+
+    private SolarTables() {
+    }
+
+    /**
+     * 使用默认线程池生成日出日落表
+     *
+     * @param latitudes     各地点纬度
+     * @param longitudes    各地点经度
+     * @param zones         各地点时区
+     * @param startEpochDay 起始日期, 自1970-01-01起的天数
+     * @param dayCount      天数
+     * @param sunrise       日出表, 长度至少为 地点数 * dayCount
+     * @param sunset        日落表, 长度至少为 地点数 * dayCount
+     */
+    public static void fill(double[] latitudes, double[] longitudes, TimeZone[] zones,
+                            int startEpochDay, int dayCount, short[] sunrise, short[] sunset) {
+        fill(latitudes, longitudes, zones, startEpochDay, dayCount, sunrise, sunset, DefaultPoolHolder.POOL);
+    }
+
+    /**
+     * 在指定线程池中生成日出日落表
+     *
+     * @see #fill(double[], double[], TimeZone[], int, int, short[], short[])
+     */
+    public static void fill(double[] latitudes, double[] longitudes, TimeZone[] zones,
+                            int startEpochDay, int dayCount, short[] sunrise, short[] sunset,
+                            ForkJoinPool pool) {
+        checkArguments(latitudes, longitudes, zones, dayCount);
+        checkTable(sunrise, latitudes.length, dayCount, "sunrise");
+        checkTable(sunset, latitudes.length, dayCount, "sunset");
+        run(latitudes, longitudes, zones, startEpochDay, dayCount, sunrise, sunset, null, pool);
+    }
+
+    /**
+     * 使用默认线程池生成打包形式的日出日落表, 每个元素可通过
+     * {@link SolarCalculator#sunriseOf(int)} / {@link SolarCalculator#sunsetOf(int)} 解包
+     */
+    public static void fillPacked(double[] latitudes, double[] longitudes, TimeZone[] zones,
+                                  int startEpochDay, int dayCount, int[] packed) {
+        fillPacked(latitudes, longitudes, zones, startEpochDay, dayCount, packed, DefaultPoolHolder.POOL);
+    }
+
+    /**
+     * 在指定线程池中生成打包形式的日出日落表
+     *
+     * @see #fillPacked(double[], double[], TimeZone[], int, int, int[])
+     */
+    public static void fillPacked(double[] latitudes, double[] longitudes, TimeZone[] zones,
+                                  int startEpochDay, int dayCount, int[] packed, ForkJoinPool pool) {
+        checkArguments(latitudes, longitudes, zones, dayCount);
+        if (packed == null || packed.length < latitudes.length * dayCount) {
+            throw new IllegalArgumentException("packed table is too small");
+        }
+        run(latitudes, longitudes, zones, startEpochDay, dayCount, null, null, packed, pool);
+    }
+
+    private static void run(double[] latitudes, double[] longitudes, TimeZone[] zones,
+                            int startEpochDay, int dayCount,
+                            short[] sunrise, short[] sunset, int[] packed, ForkJoinPool pool) {
+        if (latitudes.length == 0 || dayCount == 0) {
+            return;
+        }
+        DayParameters days = new DayParameters(startEpochDay, dayCount);
+        pool.invoke(new FillTask(latitudes, longitudes, zones, days, sunrise, sunset, packed,
+                0, latitudes.length));
+    }
+
+    private static void checkArguments(double[] latitudes, double[] longitudes, TimeZone[] zones, int dayCount) {
+        if (latitudes.length != longitudes.length || latitudes.length != zones.length) {
+            throw new IllegalArgumentException("latitudes, longitudes and zones must have the same length");
+        }
+        if (dayCount < 0) {
+            throw new IllegalArgumentException("dayCount < 0: " + dayCount);
+        }
+    }
+
+    private static void checkTable(short[] table, int locationCount, int dayCount, String name) {
+        if (table == null || table.length < locationCount * dayCount) {
+            throw new IllegalArgumentException(name + " table is too small");
+        }
+    }
+
+    /**
+     * 每天UTC 0点的太阳赤纬与时差, 覆盖 [startEpochDay - 1, startEpochDay + dayCount + 1]
+     */
+    private static final class DayParameters {
+        final int startEpochDay;
+        final double[] sinDeclination;
+        final double[] cosDeclination;
+        final double[] equationOfTime;
+
+        DayParameters(int startEpochDay, int dayCount) {
+            this.startEpochDay = startEpochDay;
+            int size = dayCount + 3;
+            sinDeclination = new double[size];
+            cosDeclination = new double[size];
+            equationOfTime = new double[size];
+            for (int i = 0; i < size; i++) {
+                double t = SolarCalculator.julianCentury(SolarCalculator.JULIAN_DAY_EPOCH + startEpochDay - 1 + i);
+                double declination = SolarCalculator.declinationRadians(t);
+                sinDeclination[i] = Math.sin(declination);
+                cosDeclination[i] = Math.cos(declination);
+                equationOfTime[i] = SolarCalculator.equationOfTime(t);
+            }
+        }
+    }
+
+    private static final class FillTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] latitudes;
+        private final double[] longitudes;
+        private final TimeZone[] zones;
+        private final DayParameters days;
+        private final short[] sunrise;
+        private final short[] sunset;
+        private final int[] packed;
+        private final int from;
+        private final int to;
+
+        FillTask(double[] latitudes, double[] longitudes, TimeZone[] zones, DayParameters days,
+                 short[] sunrise, short[] sunset, int[] packed, int from, int to) {
+            this.latitudes = latitudes;
+            this.longitudes = longitudes;
+            this.zones = zones;
+            this.days = days;
+            this.sunrise = sunrise;
+            this.sunset = sunset;
+            this.packed = packed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LOCATIONS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new FillTask(latitudes, longitudes, zones, days, sunrise, sunset, packed, from, middle),
+                        new FillTask(latitudes, longitudes, zones, days, sunrise, sunset, packed, middle, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                fillLocation(i);
+            }
+        }
+
+        private void fillLocation(int location) {
+            double latitudeRad = Math.toRadians(latitudes[location]);
+            double sinLatitude = Math.sin(latitudeRad);
+            double cosLatitude = Math.cos(latitudeRad);
+            double longitude = longitudes[location];
+            TimeZone zone = zones[location];
+            double cosZenith = Math.cos(Math.toRadians(SolarCalculator.ZENITH_OFFICIAL));
+            int dayCount = days.sinDeclination.length - 3;
+            int base = location * dayCount;
+            for (int d = 0; d < dayCount; d++) {
+                int offset = SolarCalculator.utcOffsetMinutes(zone, days.startEpochDay + d);
+                // 当地正午在参数表中的位置, 参数表从前一天开始
+                double position = d + 1.5 - offset / (double) SolarCalculator.MINUTES_PER_DAY;
+                int index = (int) position;
+                double fraction = position - index;
+                int result = SolarCalculator.packEvents(sinLatitude, cosLatitude, longitude,
+                        lerp(days.sinDeclination, index, fraction),
+                        lerp(days.cosDeclination, index, fraction),
+                        lerp(days.equationOfTime, index, fraction),
+                        offset, cosZenith);
+                if (packed != null) {
+                    packed[base + d] = result;
+                } else {
+                    sunrise[base + d] = (short) SolarCalculator.sunriseOf(result);
+                    sunset[base + d] = (short) SolarCalculator.sunsetOf(result);
+                }
+            }
+        }
+
+        private static double lerp(double[] values, int index, double fraction) {
+            return values[index] + (values[index + 1] - values[index]) * fraction;
+        }
+    }
+
+    // 延迟创建的默认线程池, 并行度为CPU核数
+    private static final class DefaultPoolHolder {
+        static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -0,0 +1,154 @@
+package com.github.tianma8023.solar;
+
+import com.github.tianma8023.model.TimeOfDay;
+
+import java.util.TimeZone;
+
+/**
+ * 某地某天的日出日落及民用、航海、天文晨昏蒙影时间, 以 {@link SolarCalculator#pack} 打包的形式保存.
+ * <p>
+ * 每一级按 {@link SolarCalculator#computePacked(double, double, int, int, double)} 的天顶角计算,
+ * 某一级全天都在该天顶角之上(或之下)时为 {@link SolarCalculator#POLAR_DAY}
+ * ({@link SolarCalculator#POLAR_NIGHT}).
+ */
+public final class TwilightDay {
+
+    /**
+     * 白昼: 太阳在地平线之上
+     */
+    public static final int PHASE_DAY = 0;
+    /**
+     * 民用晨昏蒙影
+     */
+    public static final int PHASE_CIVIL = 1;
+    /**
+     * 航海晨昏蒙影
+     */
+    public static final int PHASE_NAUTICAL = 2;
+    /**
+     * 天文晨昏蒙影
+     */
+    public static final int PHASE_ASTRONOMICAL = 3;
+    /**
+     * 夜晚: 太阳在天文晨昏蒙影的天顶角之下
+     */
+    public static final int PHASE_NIGHT = 4;
+
+    // 按 PHASE_DAY ... PHASE_ASTRONOMICAL 排列, 每一级的开始与结束
+    private final int[] packed;
+
+    private TwilightDay(int official, int civil, int nautical, int astronomical) {
+        packed = new int[]{official, civil, nautical, astronomical};
+    }
+
+    /**
+     * 计算指定地点和日期的日出日落及晨昏蒙影时间
+     *
+     * @see SolarCalculator#compute(double, double, int, int, int, TimeZone)
+     */
+    public static TwilightDay compute(double latitude, double longitude,
+                                      int year, int month, int dayOfMonth, TimeZone zone) {
+        int epochDay = SolarCalculator.epochDay(year, month, dayOfMonth);
+        int offset = SolarCalculator.utcOffsetMinutes(zone, epochDay);
+        return new TwilightDay(
+                SolarCalculator.computePacked(latitude, longitude, epochDay, offset, SolarCalculator.ZENITH_OFFICIAL),
+                SolarCalculator.computePacked(latitude, longitude, epochDay, offset, SolarCalculator.ZENITH_CIVIL),
+                SolarCalculator.computePacked(latitude, longitude, epochDay, offset, SolarCalculator.ZENITH_NAUTICAL),
+                SolarCalculator.computePacked(latitude, longitude, epochDay, offset, SolarCalculator.ZENITH_ASTRONOMICAL));
+    }
+
+    /**
+     * 由各天顶角的打包结果创建
+     */
+    public static TwilightDay fromPacked(int official, int civil, int nautical, int astronomical) {
+        return new TwilightDay(official, civil, nautical, astronomical);
+    }
+
+    /**
+     * 某一级的开始(日出或晨光始)分钟数, 可能为 POLAR_DAY / POLAR_NIGHT
+     *
+     * @param phase {@link #PHASE_DAY} ... {@link #PHASE_ASTRONOMICAL}
+     */
+    public int getStartMinute(int phase) {
+        return SolarCalculator.sunriseOf(packed[phase]);
+    }
+
+    /**
+     * 某一级的结束(日落或昏影终)分钟数, 可能为 POLAR_DAY / POLAR_NIGHT
+     *
+     * @param phase {@link #PHASE_DAY} ... {@link #PHASE_ASTRONOMICAL}
+     */
+    public int getEndMinute(int phase) {
+        return SolarCalculator.sunsetOf(packed[phase]);
+    }
+
+    /**
+     * 当天某一时刻所处的阶段
+     *
+     * @param minuteOfDay 当天分钟数
+     * @return {@link #PHASE_DAY} ... {@link #PHASE_NIGHT}
+     */
+    public int phaseAt(float minuteOfDay) {
+        for (int phase = PHASE_DAY; phase <= PHASE_ASTRONOMICAL; phase++) {
+            if (isAbove(phase, minuteOfDay)) {
+                return phase;
+            }
+        }
+        return PHASE_NIGHT;
+    }
+
+    // 太阳是否在该级的天顶角之上
+    private boolean isAbove(int phase, float minuteOfDay) {
+        int start = getStartMinute(phase);
+        if (start == SolarCalculator.POLAR_DAY) {
+            return true;
+        }
+        if (start == SolarCalculator.POLAR_NIGHT) {
+            return false;
+        }
+        int end = getEndMinute(phase);
+        if (start <= end) {
+            return minuteOfDay >= start && minuteOfDay < end;
+        }
+        // 跨越当地0点
+        return minuteOfDay >= start || minuteOfDay < end;
+    }
+
+    /**
+     * 早晨从某一级开始到日出的分钟数, 不存在时为0
+     *
+     * @param phase {@link #PHASE_CIVIL} ... {@link #PHASE_ASTRONOMICAL}
+     */
+    public int getMorningMinutes(int phase) {
+        return span(getStartMinute(phase), getStartMinute(PHASE_DAY));
+    }
+
+    /**
+     * 傍晚从日落到某一级结束的分钟数, 不存在时为0
+     *
+     * @param phase {@link #PHASE_CIVIL} ... {@link #PHASE_ASTRONOMICAL}
+     */
+    public int getEveningMinutes(int phase) {
+        return span(getEndMinute(PHASE_DAY), getEndMinute(phase));
+    }
+
+    private static int span(int from, int to) {
+        if (from < 0 || to < 0) {
+            return 0;
+        }
+        int minutes = to - from;
+        return minutes < 0 ? minutes + TimeOfDay.MINUTES_PER_DAY : minutes;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("TwilightDay{");
+        for (int phase = PHASE_DAY; phase <= PHASE_ASTRONOMICAL; phase++) {
+            if (phase > PHASE_DAY) {
+                builder.append(", ");
+            }
+            builder.append(getStartMinute(phase)).append('-').append(getEndMinute(phase));
+        }
+        return builder.append('}').toString();
+    }
+}
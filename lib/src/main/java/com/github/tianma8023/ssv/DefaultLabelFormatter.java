@@ -0,0 +1,57 @@
+package com.github.tianma8023.ssv;
+
+import com.github.tianma8023.formatter.SimpleSunriseSunsetLabelFormatter;
+import com.github.tianma8023.formatter.SunriseSunsetLabelBufferFormatter;
+import com.github.tianma8023.model.TimeOfDay;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * 默认的标签格式化器, 输出与 {@link SimpleSunriseSunsetLabelFormatter} 一致, 但直接写入缓冲区.
+ * <p>
+ * 声明为 final, 不会出现只重写了 formatTime(Time) 的子类
+ */
+final class DefaultLabelFormatter extends SimpleSunriseSunsetLabelFormatter
+        implements SunriseSunsetLabelBufferFormatter {
+
+    // 默认 Locale 对应的数字零, 与 String.format(Locale.getDefault(), "%d") 使用的本地化数字一致
+    private Locale mLocale;
+    private char mZeroDigit;
+
+    @Override
+    public void formatSunriseLabel(TimeOfDay sunrise, StringBuilder out) {
+        formatTime(sunrise, out);
+    }
+
+    @Override
+    public void formatSunsetLabel(TimeOfDay sunset, StringBuilder out) {
+        formatTime(sunset, out);
+    }
+
+    // 与 formatTime(Time) 输出一致, 但不经过 String.format
+    void formatTime(TimeOfDay time, StringBuilder out) {
+        char zero = zeroDigit();
+        appendNumber(time.getHour(), zero, out);
+        out.append(':');
+        appendNumber(time.getMinute(), zero, out);
+    }
+
+    // Locale 变化时才重新获取, 避免每次格式化都创建 DecimalFormatSymbols
+    private char zeroDigit() {
+        Locale locale = Locale.getDefault();
+        if (locale != mLocale) {
+            mZeroDigit = DecimalFormatSymbols.getInstance(locale).getZeroDigit();
+            mLocale = locale;
+        }
+        return mZeroDigit;
+    }
+
+    // 时、分都小于100
+    private static void appendNumber(int value, char zero, StringBuilder out) {
+        if (value >= 10) {
+            out.append((char) (zero + value / 10));
+        }
+        out.append((char) (zero + value % 10));
+    }
+}
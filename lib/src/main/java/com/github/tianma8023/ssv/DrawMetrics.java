@@ -0,0 +1,159 @@
+package com.github.tianma8023.ssv;
+
+/**
+ * SunriseSunsetView 的绘制统计, 各阶段耗时以纳秒为单位.
+ * 仅在设置了 {@link DrawMetricsListener} 时才会收集
+ *
+ * @see SunriseSunsetView#setDrawMetricsListener(DrawMetricsListener)
+ */
+public final class DrawMetrics {
+
+    /**
+     * 绘制半圆轨迹
+     */
+    public static final int PHASE_TRACK = 0;
+    /**
+     * 绘制日出日落阴影
+     */
+    public static final int PHASE_SHADOW = 1;
+    /**
+     * 绘制太阳
+     */
+    public static final int PHASE_SUN = 2;
+    /**
+     * 绘制日出日落标签
+     */
+    public static final int PHASE_LABEL = 3;
+    /**
+     * 绘制静态图层缓存
+     */
+    public static final int PHASE_STATIC_LAYER = 4;
+    /**
+     * 整个 onDraw
+     */
+    public static final int PHASE_FRAME = 5;
+    /**
+     * 绘制天空渐变及晨昏蒙影色带, 未设置时不记录
+     */
+    public static final int PHASE_SKY = 6;
+
+    private static final int PHASE_COUNT = 7;
+
+    private final LatencyHistogram[] mPhases = new LatencyHistogram[PHASE_COUNT];
+    // 动画相邻两帧的时间间隔
+    private final LatencyHistogram mAnimatorFrameIntervals = new LatencyHistogram();
+    private long mLastAnimatorFrameNanos;
+
+    private long mFrameCount;
+    private long mFullInvalidateCount;
+    private long mPartialInvalidateCount;
+    private long mSuppressedInvalidateCount;
+
+    DrawMetrics() {
+        for (int i = 0; i < PHASE_COUNT; i++) {
+            mPhases[i] = new LatencyHistogram();
+        }
+    }
+
+    void recordPhase(int phase, long nanos) {
+        mPhases[phase].record(nanos);
+    }
+
+    void recordFrame(long nanos) {
+        mFrameCount++;
+        mPhases[PHASE_FRAME].record(nanos);
+    }
+
+    void recordFullInvalidate() {
+        mFullInvalidateCount++;
+    }
+
+    void recordPartialInvalidate() {
+        mPartialInvalidateCount++;
+    }
+
+    void recordSuppressedInvalidate() {
+        mSuppressedInvalidateCount++;
+    }
+
+    void recordAnimatorFrame(long frameNanos) {
+        if (mLastAnimatorFrameNanos != 0) {
+            mAnimatorFrameIntervals.record(frameNanos - mLastAnimatorFrameNanos);
+        }
+        mLastAnimatorFrameNanos = frameNanos;
+    }
+
+    // 一次动画结束, 下一次动画的第一帧不与本次最后一帧计算间隔
+    void endAnimatorRun() {
+        mLastAnimatorFrameNanos = 0;
+    }
+
+    /**
+     * 指定阶段的耗时分布
+     *
+     * @param phase {@link #PHASE_TRACK}, {@link #PHASE_SHADOW}, {@link #PHASE_SUN},
+     *              {@link #PHASE_LABEL}, {@link #PHASE_STATIC_LAYER}, {@link #PHASE_FRAME} 或 {@link #PHASE_SKY}
+     */
+    public LatencyHistogram getPhase(int phase) {
+        return mPhases[phase];
+    }
+
+    public long getFrameCount() {
+        return mFrameCount;
+    }
+
+    public long getFullInvalidateCount() {
+        return mFullInvalidateCount;
+    }
+
+    public long getPartialInvalidateCount() {
+        return mPartialInvalidateCount;
+    }
+
+    public long getSuppressedInvalidateCount() {
+        return mSuppressedInvalidateCount;
+    }
+
+    /**
+     * 动画相邻两帧的时间间隔分布
+     */
+    public LatencyHistogram getAnimatorFrameIntervals() {
+        return mAnimatorFrameIntervals;
+    }
+
+    /**
+     * 动画的平均帧率(帧/秒), 没有动画帧时为0
+     */
+    public float getAnimatorFrameRate() {
+        long total = mAnimatorFrameIntervals.getTotal();
+        return total == 0 ? 0 : mAnimatorFrameIntervals.getCount() * 1e9f / total;
+    }
+
+    public void reset() {
+        for (LatencyHistogram phase : mPhases) {
+            phase.reset();
+        }
+        mAnimatorFrameIntervals.reset();
+        mLastAnimatorFrameNanos = 0;
+        mFrameCount = 0;
+        mFullInvalidateCount = 0;
+        mPartialInvalidateCount = 0;
+        mSuppressedInvalidateCount = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "DrawMetrics{frames=" + mFrameCount
+                + ", frame=[" + mPhases[PHASE_FRAME]
+                + "], sky=[" + mPhases[PHASE_SKY]
+                + "], track=[" + mPhases[PHASE_TRACK]
+                + "], shadow=[" + mPhases[PHASE_SHADOW]
+                + "], sun=[" + mPhases[PHASE_SUN]
+                + "], label=[" + mPhases[PHASE_LABEL]
+                + "], staticLayer=[" + mPhases[PHASE_STATIC_LAYER]
+                + "], invalidate(full/partial/suppressed)=" + mFullInvalidateCount
+                + "/" + mPartialInvalidateCount + "/" + mSuppressedInvalidateCount
+                + ", animatorFps=" + getAnimatorFrameRate()
+                + "}";
+    }
+}
@@ -0,0 +1,16 @@
+package com.github.tianma8023.ssv;
+
+/**
+ * 绘制统计回调, 每次 onDraw 结束后调用
+ *
+ * @see SunriseSunsetView#setDrawMetricsListener(DrawMetricsListener)
+ */
+public interface DrawMetricsListener {
+
+    /**
+     * @param view    完成绘制的View
+     * @param metrics 自设置监听以来的累计统计, 同一个View始终是同一个实例,
+     *                可在需要时读取并上报, 上报后可调用 {@link DrawMetrics#reset()}
+     */
+    void onFrameDrawn(SunriseSunsetView view, DrawMetrics metrics);
+}
@@ -0,0 +1,108 @@
+package com.github.tianma8023.ssv;
+
+/**
+ * 记录耗时(纳秒)分布的直方图, 记录过程不分配内存.
+ * <p>
+ * 每个2的幂区间被划分为8个子区间, 百分位结果的相对误差不超过12.5%.
+ * 非线程安全, 仅应在同一线程(通常是主线程)中记录和读取.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final int[] mCounts = new int[BUCKET_COUNT];
+    private long mCount;
+    private long mTotal;
+    private long mMax;
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        mCounts[bucketIndex(value)]++;
+        mCount++;
+        mTotal += value;
+        if (value > mMax) {
+            mMax = value;
+        }
+    }
+
+    public long getCount() {
+        return mCount;
+    }
+
+    public long getMax() {
+        return mMax;
+    }
+
+    public long getMean() {
+        return mCount == 0 ? 0 : mTotal / mCount;
+    }
+
+    public long getTotal() {
+        return mTotal;
+    }
+
+    /**
+     * 百分位数值, 返回所在子区间的上界(不超过最大值)
+     *
+     * @param percentile 0-100
+     */
+    public long getPercentile(double percentile) {
+        if (mCount == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(mCount * Math.min(Math.max(percentile, 0), 100) / 100);
+        if (target < 1) {
+            target = 1;
+        }
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += mCounts[i];
+            if (seen >= target) {
+                return Math.min(bucketUpperBound(i), mMax);
+            }
+        }
+        return mMax;
+    }
+
+    public long getP50() {
+        return getPercentile(50);
+    }
+
+    public long getP95() {
+        return getPercentile(95);
+    }
+
+    public void reset() {
+        java.util.Arrays.fill(mCounts, 0);
+        mCount = 0;
+        mTotal = 0;
+        mMax = 0;
+    }
+
+    // 小于8的值各占一个区间, 其余值按最高位分组, 每组再按其后3位分为8个子区间
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < 2 * SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >> SUB_BUCKET_BITS) - 1;
+        long subBucket = (index & (SUB_BUCKET_COUNT - 1)) + SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "p50=" + getP50() + " p95=" + getP95() + " max=" + mMax + " count=" + mCount;
+    }
+}
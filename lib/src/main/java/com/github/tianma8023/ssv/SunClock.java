@@ -0,0 +1,36 @@
+package com.github.tianma8023.ssv;
+
+import java.util.TimeZone;
+
+/**
+ * SunriseSunsetView 获取当前时间的时钟, 可替换为自定义实现(如测试或模拟时间)
+ *
+ * @see SunriseSunsetView#setClock(SunClock)
+ */
+public interface SunClock {
+
+    /**
+     * 系统时钟, 使用设备当前时区
+     */
+    SunClock SYSTEM = new SunClock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public TimeZone getTimeZone() {
+            return TimeZone.getDefault();
+        }
+    };
+
+    /**
+     * 当前时间, 自1970-01-01 00:00 UTC起的毫秒数
+     */
+    long currentTimeMillis();
+
+    /**
+     * 日出日落时间所在的时区
+     */
+    TimeZone getTimeZone();
+}
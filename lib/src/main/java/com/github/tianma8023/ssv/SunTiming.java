@@ -0,0 +1,91 @@
+package com.github.tianma8023.ssv;
+
+import com.github.tianma8023.geometry.SunArcGeometry;
+import com.github.tianma8023.model.TimeOfDay;
+
+import java.util.TimeZone;
+
+/**
+ * 日出日落比率及实时模式更新间隔的计算, 供 SunriseSunsetView 及 SunriseSunsetTextureView 共用
+ */
+final class SunTiming {
+
+    static final long MILLIS_PER_DAY = TimeOfDay.SECONDS_PER_DAY * 1000L;
+    private static final long MIN_LIVE_TICK_MS = 16L; // 实时模式最短更新间隔
+    private static final long DEFAULT_LIVE_TICK_MS = 60 * 1000L; // 尚未布局时的更新间隔
+
+    private SunTiming() {
+    }
+
+    // 时钟所在时区的当天毫秒数
+    static long millisOfDay(SunClock clock) {
+        long now = clock.currentTimeMillis();
+        long local = now + clock.getTimeZone().getOffset(now);
+        long millisOfDay = local % MILLIS_PER_DAY;
+        return millisOfDay < 0 ? millisOfDay + MILLIS_PER_DAY : millisOfDay;
+    }
+
+    // 某一时刻在时区中的当天时间, 精确到分钟, 来自 TimeOfDay 的缓存池, 不会创建对象
+    static TimeOfDay localMinuteOf(long millis, TimeZone zone) {
+        long millisOfDay = (millis + zone.getOffset(millis)) % MILLIS_PER_DAY;
+        if (millisOfDay < 0) {
+            millisOfDay += MILLIS_PER_DAY;
+        }
+        return TimeOfDay.ofMinuteOfDay((int) (millisOfDay / 60000L));
+    }
+
+    // 某一时刻之后的下一个当地0点
+    static long nextMidnightMillis(long millis, TimeZone zone) {
+        long local = millis + zone.getOffset(millis);
+        long millisOfDay = local % MILLIS_PER_DAY;
+        if (millisOfDay < 0) {
+            millisOfDay += MILLIS_PER_DAY;
+        }
+        return millis + MILLIS_PER_DAY - millisOfDay;
+    }
+
+    // 根据当天毫秒数计算比率, 范围[0, 1]
+    static float ratioAt(TimeOfDay sunriseTime, TimeOfDay sunsetTime, long millisOfDay) {
+        int sunrise = sunriseTime.toSecondOfDay();
+        int sunset = sunsetTime.toSecondOfDay();
+        // 极夜时日出与日落相同, 太阳停留在起点
+        if (sunset == sunrise) {
+            return 0;
+        }
+        double now = millisOfDay / 1000.0;
+        // 高纬度夏季日落在次日凌晨, 0点到日落之间仍属于前一天的白昼
+        if (sunset < sunrise) {
+            sunset += TimeOfDay.SECONDS_PER_DAY;
+            if (now < sunset - TimeOfDay.SECONDS_PER_DAY) {
+                now += TimeOfDay.SECONDS_PER_DAY;
+            }
+        }
+        float ratio = (float) (now - sunrise) / (sunset - sunrise);
+        return SunArcGeometry.clampRatio(ratio);
+    }
+
+    // 距离太阳移动1像素(或下一次日出/0点)的毫秒数
+    static long liveTickDelay(TimeOfDay sunriseTime, TimeOfDay sunsetTime, long millisOfDay, float trackRadius) {
+        long sunrise = sunriseTime.toSecondOfDay() * 1000L;
+        long sunset = sunsetTime.toSecondOfDay() * 1000L;
+        if (sunset < sunrise) {
+            // 日落在次日凌晨, 同 ratioAt
+            sunset += MILLIS_PER_DAY;
+            if (millisOfDay < sunset - MILLIS_PER_DAY) {
+                millisOfDay += MILLIS_PER_DAY;
+            }
+        }
+        if (sunset == sunrise || millisOfDay >= sunset) {
+            return MILLIS_PER_DAY - millisOfDay;
+        }
+        if (millisOfDay < sunrise) {
+            return sunrise - millisOfDay;
+        }
+        if (trackRadius <= 0) {
+            return DEFAULT_LIVE_TICK_MS;
+        }
+        // 轨迹长度为 PI * R 像素, 太阳在白昼时长内匀速走完
+        double millisPerPixel = (sunset - sunrise) / (Math.PI * trackRadius);
+        return Math.max(MIN_LIVE_TICK_MS, (long) Math.ceil(millisPerPixel));
+    }
+}
@@ -0,0 +1,956 @@
+package com.github.tianma8023.ssv;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.graphics.Shader;
+import android.graphics.SweepGradient;
+import android.text.TextPaint;
+
+import com.github.tianma8023.formatter.SunriseSunsetLabelBufferFormatter;
+import com.github.tianma8023.formatter.SunriseSunsetLabelFormatter;
+import com.github.tianma8023.geometry.SunArcGeometry;
+import com.github.tianma8023.model.Time;
+import com.github.tianma8023.model.TimeOfDay;
+import com.github.tianma8023.solar.TwilightDay;
+
+import java.util.Arrays;
+
+/**
+ * 日出日落图的绘制器, 不依赖 View, 可以绘制到任意 Canvas 上, 如 AppWidget、通知或分享图片.
+ * <p>
+ * 实例不是线程安全的, 只能在同一线程中使用. 需要在线程池中并发生成图片时使用
+ * {@link #render(Canvas, int, int, SunriseSunsetState)}, 每个线程复用各自的实例.
+ */
+public final class SunriseSunsetRenderer {
+
+    static final int SUN_STROKE_WIDTH_PX = 4;
+
+    private static final int MINIMAL_TRACK_RADIUS_PX = 300; // 半圆轨迹最小半径
+    private static final float TRACK_DASH_PHASE_PX = 1; // 与默认 DashPathEffect 的相位一致
+    private static final float TRACK_MAX_SAGITTA_PX = 0.25f; // 用弦近似圆弧时允许的最大偏差
+    private static final int TWILIGHT_BAND_COUNT = 3; // 民用、航海、天文晨昏蒙影
+    private static final float MAX_TWILIGHT_SWEEP_DEGREES = 90; // 色带从地平线向上延伸的最大角度
+    // 各阶段天空顶部颜色中白昼颜色的比例, 按 TwilightDay.PHASE_* 排列
+    private static final float[] SKY_DAY_FRACTIONS = {1f, 0.6f, 0.35f, 0.15f, 0f};
+
+    // 样式变化影响的范围
+    static final int STYLE_CHANGE_NONE = 0;
+    static final int STYLE_CHANGE_DRAW = 1;
+    static final int STYLE_CHANGE_LAYOUT = 2;
+
+    // 需要根据样式重新配置的画笔
+    private static final int PAINT_TRACK = 1;
+    private static final int PAINT_SHADOW = 1 << 1;
+    private static final int PAINT_SUN = 1 << 2;
+    private static final int PAINT_LABEL = 1 << 3;
+    private static final int PAINT_ALL = PAINT_TRACK | PAINT_SHADOW | PAINT_SUN | PAINT_LABEL;
+
+    // 每个线程复用一个实例
+    private static final ThreadLocal<SunriseSunsetRenderer> sThreadRenderer = new ThreadLocal<SunriseSunsetRenderer>() {
+        @Override
+        protected SunriseSunsetRenderer initialValue() {
+            return new SunriseSunsetRenderer();
+        }
+    };
+
+    private SunriseSunsetStyle mStyle = SunriseSunsetStyle.DEFAULT;
+
+    /**
+     * 当前日出日落比率, mRatio < 0: 未日出, mRatio > 1 已日落
+     */
+    private float mRatio;
+    private TimeOfDay mSunriseTime;
+    private TimeOfDay mSunsetTime;
+    private SunriseSunsetLabelFormatter mLabelFormatter = new DefaultLabelFormatter();
+
+    private final Paint mTrackPaint;  // 绘制半圆轨迹的Paint
+    private final Paint mShadowPaint; // 绘制日出日落阴影的Paint
+    private final Paint mSunPaint;    // 绘制太阳的Paint
+    private final TextPaint mLabelPaint;   // 绘制日出日落时间的Paint
+    // 样式变化后尚未重新配置的画笔, 绘制时才按需配置
+    private int mDirtyPaints = PAINT_ALL;
+
+    // 轨迹圆的半径
+    private float mTrackRadius;
+    // 比率与轨迹坐标的换算
+    private SunArcGeometry mGeometry = new SunArcGeometry();
+    // 绘图区域
+    private final RectF mBoardRectF = new RectF();
+    // 半圆轨迹所在的椭圆区域, 在尺寸变化时计算
+    private final RectF mTrackOvalRectF = new RectF();
+    // 阴影路径, 每帧rewind后复用
+    private final Path mShadowPath = new Path();
+    // 标签字体度量, 复用以避免getFontMetricsInt()的分配
+    private final Paint.FontMetricsInt mLabelFontMetrics = new Paint.FontMetricsInt();
+    // 日出/日落标签的基线坐标
+    private float mSunriseLabelX;
+    private float mSunsetLabelX;
+    private float mLabelBaseLineY;
+    // 标签文字缓存, 仅在时间/格式化器/文字大小变化时重新格式化和测量
+    private final StringBuilder mLabelBuilder = new StringBuilder();
+    private char[] mSunriseLabelChars = new char[16];
+    private int mSunriseLabelLength;
+    private float mSunriseLabelWidth;
+    private char[] mSunsetLabelChars = new char[16];
+    private int mSunsetLabelLength;
+    private float mSunsetLabelWidth;
+    private boolean mLabelCacheValid;
+    // 时间轴模式, 标签显示 mTimelineLabelDay 当天的时间
+    private SunriseSunsetTimeline mTimeline;
+    private float mDayIndex;
+    private int mTimelineLabelDay;
+    // 时间轴每天的标签缓存, 下标 day * 2 为日出, day * 2 + 1 为日落. 首次显示时才格式化
+    private char[][] mDayLabelChars;
+    private int[] mDayLabelLengths;
+    private float[] mDayLabelWidths;
+    // 虚线/圆点模式下预先计算的线段端点或圆点坐标, 仅在尺寸或虚线样式变化时重新计算
+    private float[] mTrackPoints = new float[0];
+    private int mTrackPointCount;
+    private boolean mTrackPointsValid;
+    // 轨迹和标签(静态内容)的版本号, 每次变化时递增
+    private int mStaticContentVersion;
+
+    // 天空渐变及晨昏蒙影色带, 路径和 Shader 只在尺寸、样式或晨昏蒙影时间变化时重新创建
+    private TwilightDay mTwilight;
+    private int mSkyPhase = TwilightDay.PHASE_DAY;
+    private final Paint mSkyPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Path mSkyPath = new Path();
+    // 各阶段的天空渐变, 首次进入该阶段时创建
+    private final Shader[] mSkyShaders = new Shader[TwilightDay.PHASE_NIGHT + 1];
+    private final Path[] mTwilightBandPaths = new Path[TWILIGHT_BAND_COUNT];
+    private final Shader[] mTwilightBandShaders = new Shader[TWILIGHT_BAND_COUNT];
+    private final RectF mTwilightOvalRectF = new RectF();
+    private boolean mSkyGeometryValid;
+    private boolean mTwilightShadersValid;
+
+    // 当前太阳中心坐标, 每帧只计算一次
+    private float mSunCenterX;
+    private float mSunCenterY;
+
+    public SunriseSunsetRenderer() {
+        // 初始化半圆轨迹的画笔
+        mTrackPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mTrackPaint.setStyle(Paint.Style.STROKE); // 画笔的样式为线条
+
+        // 初始化日出日落阴影的画笔
+        mShadowPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mShadowPaint.setStyle(Paint.Style.FILL_AND_STROKE);
+
+        // 初始化太阳的Paint
+        mSunPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mSunPaint.setStrokeWidth(SUN_STROKE_WIDTH_PX);
+
+        mLabelPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        // 标签宽度已缓存, 统一左对齐绘制
+        mLabelPaint.setTextAlign(Paint.Align.LEFT);
+
+        for (int i = 0; i < TWILIGHT_BAND_COUNT; i++) {
+            mTwilightBandPaths[i] = new Path();
+        }
+    }
+
+    /**
+     * 线程安全地将状态绘制到 Canvas 上, 图形按宽高比缩放后底部居中. 每个线程复用同一个绘制器
+     *
+     * @param canvas 目标Canvas
+     * @param width  绘制区域宽度
+     * @param height 绘制区域高度
+     * @param state  日出日落状态, 样式为null时使用 {@link SunriseSunsetStyle#DEFAULT}
+     */
+    public static void render(Canvas canvas, int width, int height, SunriseSunsetState state) {
+        SunriseSunsetRenderer renderer = sThreadRenderer.get();
+        SunriseSunsetStyle style = state.getStyle();
+        renderer.setStyle(style != null ? style : SunriseSunsetStyle.DEFAULT);
+        renderer.setTimes(state.getSunrise(), state.getSunset());
+        renderer.setRatio(state.getRatio());
+        // 轨迹高度为宽度的一半, 超出高度时缩小宽度
+        int contentWidth = Math.min(width, height * 2);
+        int paddingLeft = (width - contentWidth) / 2;
+        int paddingTop = height - contentWidth / 2;
+        renderer.layout(width, paddingLeft, paddingTop, width - contentWidth - paddingLeft, 0);
+        renderer.draw(canvas);
+    }
+
+    /**
+     * 线程安全地创建指定尺寸的 Bitmap 并绘制状态, 适用于在后台线程生成 AppWidget 图片
+     *
+     * @see #render(Canvas, int, int, SunriseSunsetState)
+     */
+    public static Bitmap renderBitmap(int width, int height, SunriseSunsetState state) {
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        render(new Canvas(bitmap), width, height, state);
+        return bitmap;
+    }
+
+    /**
+     * 根据宽度和内边距计算轨迹及标签位置
+     *
+     * @return 绘制所需的高度(包含内边距)
+     */
+    public int layout(int width, int paddingLeft, int paddingTop, int paddingRight, int paddingBottom) {
+        float sunRadius = mStyle.getSunRadius();
+        mTrackRadius = 1.0f * (width - paddingLeft - paddingRight - 2 * sunRadius) / 2;
+        int height = measureHeight(mStyle, width, paddingLeft, paddingTop, paddingRight, paddingBottom);
+        mBoardRectF.set(paddingLeft + sunRadius, paddingTop + sunRadius, width - paddingRight - sunRadius, height - paddingBottom);
+        mTrackOvalRectF.set(mBoardRectF.left, mBoardRectF.top, mBoardRectF.right, mBoardRectF.bottom + mBoardRectF.height());
+        mGeometry.setTrack(mBoardRectF.left, mBoardRectF.top, mBoardRectF.bottom, mTrackRadius);
+        mTrackPointsValid = false;
+        mSkyGeometryValid = false;
+        updateLabelGeometry();
+        return height;
+    }
+
+    /**
+     * 轨迹达到最小半径时所需的宽度(不含内边距), 用于 wrap_content
+     */
+    public int getMinimumWidth() {
+        return minimumWidth(mStyle);
+    }
+
+    /**
+     * 指定样式下轨迹达到最小半径时所需的宽度(不含内边距)
+     */
+    public static int minimumWidth(SunriseSunsetStyle style) {
+        return MINIMAL_TRACK_RADIUS_PX * 2 + (int) style.getSunRadius() * 2;
+    }
+
+    /**
+     * 指定样式及宽度下绘制所需的高度(包含内边距), 与 {@link #layout} 的返回值相同, 可在任意线程调用
+     */
+    public static int measureHeight(SunriseSunsetStyle style, int width,
+                                    int paddingLeft, int paddingTop, int paddingRight, int paddingBottom) {
+        float sunRadius = style.getSunRadius();
+        float trackRadius = 1.0f * (width - paddingLeft - paddingRight - 2 * sunRadius) / 2;
+        return (int) (trackRadius + sunRadius + paddingBottom + paddingTop);
+    }
+
+    // 计算标签基线坐标
+    private void updateLabelGeometry() {
+        prepareLabelPaint();
+        mLabelPaint.getFontMetricsInt(mLabelFontMetrics);
+        mSunriseLabelX = mBoardRectF.left + mStyle.getSunRadius() + mStyle.getLabelHorizontalOffset();
+        mSunsetLabelX = mBoardRectF.right - mStyle.getSunRadius() - mStyle.getLabelHorizontalOffset();
+        mLabelBaseLineY = mBoardRectF.bottom - mLabelFontMetrics.bottom - mStyle.getLabelVerticalOffset();
+        mStaticContentVersion++;
+    }
+
+    /**
+     * 设置样式, 只有发生变化的画笔会在下次绘制时重新配置. 太阳半径变化后需要重新调用 {@link #layout}
+     */
+    public void setStyle(SunriseSunsetStyle style) {
+        applyStyle(style);
+    }
+
+    public SunriseSunsetStyle getStyle() {
+        return mStyle;
+    }
+
+    // 与当前样式比较, 只标记受影响的画笔并重新计算受影响的部分, 返回变化的范围
+    int applyStyle(SunriseSunsetStyle style) {
+        SunriseSunsetStyle old = mStyle;
+        mStyle = style;
+        if (old == style || old.equals(style)) {
+            return STYLE_CHANGE_NONE;
+        }
+
+        int dirtyPaints = 0;
+        if (old.getTrackColor() != style.getTrackColor()
+                || old.getTrackWidth() != style.getTrackWidth()
+                || old.getTrackPathEffect() != style.getTrackPathEffect()) {
+            dirtyPaints |= PAINT_TRACK;
+        }
+        if (old.getTrackMode() != style.getTrackMode()
+                || Float.compare(old.getTrackDashLength(), style.getTrackDashLength()) != 0
+                || Float.compare(old.getTrackDashGap(), style.getTrackDashGap()) != 0) {
+            dirtyPaints |= PAINT_TRACK;
+            mTrackPointsValid = false;
+        }
+        if (old.getShadowColor() != style.getShadowColor()) {
+            dirtyPaints |= PAINT_SHADOW;
+        }
+        if (old.getSunColor() != style.getSunColor() || old.getSunPaintStyle() != style.getSunPaintStyle()) {
+            dirtyPaints |= PAINT_SUN;
+        }
+        boolean textSizeChanged = old.getLabelTextSize() != style.getLabelTextSize();
+        if (textSizeChanged || old.getLabelTextColor() != style.getLabelTextColor()) {
+            dirtyPaints |= PAINT_LABEL;
+        }
+        mDirtyPaints |= dirtyPaints;
+        if (Float.compare(old.getTwilightBandWidth(), style.getTwilightBandWidth()) != 0
+                || old.getCivilTwilightColor() != style.getCivilTwilightColor()
+                || old.getNauticalTwilightColor() != style.getNauticalTwilightColor()
+                || old.getAstronomicalTwilightColor() != style.getAstronomicalTwilightColor()
+                || old.getSkyDayColor() != style.getSkyDayColor()
+                || old.getSkyNightColor() != style.getSkyNightColor()) {
+            mSkyGeometryValid = false;
+        }
+        if (textSizeChanged) {
+            mLabelCacheValid = false;
+            invalidateDayLabelWidths();
+        }
+
+        boolean radiusChanged = Float.compare(old.getSunRadius(), style.getSunRadius()) != 0;
+        boolean labelGeometryChanged = textSizeChanged
+                || old.getLabelVerticalOffset() != style.getLabelVerticalOffset()
+                || old.getLabelHorizontalOffset() != style.getLabelHorizontalOffset();
+        // 只有轨迹和标签属于静态内容, 太阳和阴影的颜色变化不需要重绘静态图层
+        if ((dirtyPaints & (PAINT_TRACK | PAINT_LABEL)) != 0 || radiusChanged || labelGeometryChanged) {
+            mStaticContentVersion++;
+        }
+        if (radiusChanged) {
+            // 太阳半径影响轨迹半径及标签位置, 需要重新 layout
+            return STYLE_CHANGE_LAYOUT;
+        }
+        if (labelGeometryChanged) {
+            updateLabelGeometry();
+        }
+        return STYLE_CHANGE_DRAW;
+    }
+
+    /**
+     * 设置日出日落时间, 与当前时间相同时不会重新格式化标签
+     *
+     * @return 时间是否发生了变化
+     */
+    public boolean setTimes(TimeOfDay sunrise, TimeOfDay sunset) {
+        if (sameTime(mSunriseTime, sunrise) && sameTime(mSunsetTime, sunset)) {
+            return false;
+        }
+        mSunriseTime = sunrise;
+        mSunsetTime = sunset;
+        // 直接设置时间时退出时间轴模式
+        mTimeline = null;
+        invalidateLabelCache();
+        return true;
+    }
+
+    /**
+     * 进入时间轴模式并显示第0天, 传入null退出时间轴模式并清除日出日落时间
+     */
+    public void setTimeline(SunriseSunsetTimeline timeline) {
+        if (timeline == null) {
+            if (mTimeline != null) {
+                mTimeline = null;
+                mSunriseTime = null;
+                mSunsetTime = null;
+                invalidateLabelCache();
+            }
+            return;
+        }
+        mTimeline = timeline;
+        int size = timeline.getDayCount() * 2;
+        if (mDayLabelChars == null || mDayLabelChars.length != size) {
+            mDayLabelChars = new char[size][];
+            mDayLabelLengths = new int[size];
+            mDayLabelWidths = new float[size];
+        }
+        invalidateDayLabels();
+        mTimelineLabelDay = -1;
+        setDayIndex(0);
+    }
+
+    public SunriseSunsetTimeline getTimeline() {
+        return mTimeline;
+    }
+
+    /**
+     * 时间轴模式下切换到第 dayIndex 天, 小数部分在相邻两天之间插值.
+     * 日出日落时间取插值结果所在的分钟, 标签显示最接近的一天
+     *
+     * @return 标签是否发生了变化
+     */
+    public boolean setDayIndex(float dayIndex) {
+        SunriseSunsetTimeline timeline = mTimeline;
+        if (timeline == null) {
+            throw new IllegalStateException("setTimeline() must be called before setDayIndex()");
+        }
+        dayIndex = timeline.clampDayIndex(dayIndex);
+        mDayIndex = dayIndex;
+        // 整分钟的 TimeOfDay 来自预分配的池, 不会产生新对象
+        mSunriseTime = TimeOfDay.ofMinuteOfDay(Math.round(timeline.sunriseMinuteAt(dayIndex)));
+        mSunsetTime = TimeOfDay.ofMinuteOfDay(Math.round(timeline.sunsetMinuteAt(dayIndex)) % TimeOfDay.MINUTES_PER_DAY);
+        int labelDay = Math.round(dayIndex);
+        if (labelDay == mTimelineLabelDay) {
+            return false;
+        }
+        mTimelineLabelDay = labelDay;
+        mStaticContentVersion++;
+        return true;
+    }
+
+    public float getDayIndex() {
+        return mDayIndex;
+    }
+
+    /**
+     * 设置晨昏蒙影时间, 用于绘制晨昏蒙影色带. 传入null不绘制色带
+     */
+    public void setTwilight(TwilightDay twilight) {
+        mTwilight = twilight;
+        mTwilightShadersValid = false;
+    }
+
+    public TwilightDay getTwilight() {
+        return mTwilight;
+    }
+
+    /**
+     * 设置天空渐变所处的阶段, 默认为 {@link TwilightDay#PHASE_DAY}
+     *
+     * @param phase {@link TwilightDay#PHASE_DAY} ... {@link TwilightDay#PHASE_NIGHT}
+     * @return 阶段是否发生了变化
+     */
+    public boolean setSkyPhase(int phase) {
+        if (phase < TwilightDay.PHASE_DAY || phase > TwilightDay.PHASE_NIGHT) {
+            throw new IllegalArgumentException("Unknown sky phase: " + phase);
+        }
+        if (mSkyPhase == phase) {
+            return false;
+        }
+        mSkyPhase = phase;
+        return true;
+    }
+
+    public int getSkyPhase() {
+        return mSkyPhase;
+    }
+
+    private static boolean sameTime(TimeOfDay a, TimeOfDay b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    public TimeOfDay getSunriseTime() {
+        return mSunriseTime;
+    }
+
+    public TimeOfDay getSunsetTime() {
+        return mSunsetTime;
+    }
+
+    public void setLabelFormatter(SunriseSunsetLabelFormatter labelFormatter) {
+        mLabelFormatter = labelFormatter;
+        invalidateLabelCache();
+        invalidateDayLabels();
+    }
+
+    public SunriseSunsetLabelFormatter getLabelFormatter() {
+        return mLabelFormatter;
+    }
+
+    public void setRatio(float ratio) {
+        mRatio = ratio;
+    }
+
+    public float getRatio() {
+        return mRatio;
+    }
+
+    float getTrackRadius() {
+        return mTrackRadius;
+    }
+
+    float getTrackTop() {
+        return mBoardRectF.top;
+    }
+
+    float getTrackBottom() {
+        return mBoardRectF.bottom;
+    }
+
+    // 轨迹和标签的版本号, 变化后需要重绘静态图层
+    int getStaticContentVersion() {
+        return mStaticContentVersion;
+    }
+
+    SunArcGeometry getGeometry() {
+        return mGeometry;
+    }
+
+    /**
+     * 计算太阳位置时是否使用预先计算的 sin/cos 查找表(线性插值), 默认使用精确计算.
+     * 默认大小的查找表误差小于轨迹半径的 {@link SunArcGeometry#DEFAULT_TABLE_MAX_ERROR} 倍
+     */
+    public void setTrigLookupTableEnabled(boolean enabled) {
+        if (enabled == mGeometry.usesLookupTable()) {
+            return;
+        }
+        SunArcGeometry geometry = enabled ? SunArcGeometry.withLookupTable() : new SunArcGeometry();
+        geometry.setTrack(mGeometry.getLeft(), mGeometry.getTop(), mGeometry.getBottom(), mGeometry.getRadius());
+        mGeometry = geometry;
+    }
+
+    public boolean isTrigLookupTableEnabled() {
+        return mGeometry.usesLookupTable();
+    }
+
+    /**
+     * 按当前状态绘制轨迹、阴影、太阳及标签
+     */
+    public void draw(Canvas canvas) {
+        updateSunPosition();
+        drawSky(canvas);
+        drawSunTrack(canvas);
+        drawShadow(canvas);
+        drawSun(canvas);
+        drawSunriseSunsetLabel(canvas);
+    }
+
+    // 计算当前太阳中心坐标
+    void updateSunPosition() {
+        mSunCenterX = mGeometry.sunX(mRatio);
+        mSunCenterY = mGeometry.sunY(mRatio);
+    }
+
+    // 半圆轨迹的画笔, 仅在样式变化后重新配置
+    private void prepareTrackPaint() {
+        if ((mDirtyPaints & PAINT_TRACK) == 0) {
+            return;
+        }
+        int mode = mStyle.getTrackMode();
+        mTrackPaint.setColor(mStyle.getTrackColor());
+        mTrackPaint.setStrokeWidth(mStyle.getTrackWidth());
+        mTrackPaint.setPathEffect(mode == SunriseSunsetStyle.TRACK_MODE_PATH_EFFECT ? mStyle.getTrackPathEffect() : null);
+        mTrackPaint.setStrokeCap(mode == SunriseSunsetStyle.TRACK_MODE_DOTTED ? Paint.Cap.ROUND : Paint.Cap.BUTT);
+        mDirtyPaints &= ~PAINT_TRACK;
+    }
+
+    // 阴影的画笔
+    private void prepareShadowPaint() {
+        if ((mDirtyPaints & PAINT_SHADOW) == 0) {
+            return;
+        }
+        mShadowPaint.setColor(mStyle.getShadowColor());
+        mDirtyPaints &= ~PAINT_SHADOW;
+    }
+
+    // 太阳的画笔
+    private void prepareSunPaint() {
+        if ((mDirtyPaints & PAINT_SUN) == 0) {
+            return;
+        }
+        mSunPaint.setColor(mStyle.getSunColor());
+        mSunPaint.setStyle(mStyle.getSunPaintStyle());
+        mDirtyPaints &= ~PAINT_SUN;
+    }
+
+    // 标签的画笔
+    private void prepareLabelPaint() {
+        if ((mDirtyPaints & PAINT_LABEL) == 0) {
+            return;
+        }
+        mLabelPaint.setColor(mStyle.getLabelTextColor());
+        mLabelPaint.setTextSize(mStyle.getLabelTextSize());
+        mDirtyPaints &= ~PAINT_LABEL;
+    }
+
+    // 绘制太阳轨道（半圆）
+    void drawSunTrack(Canvas canvas) {
+        prepareTrackPaint();
+        int mode = mStyle.getTrackMode();
+        if (mode == SunriseSunsetStyle.TRACK_MODE_PATH_EFFECT) {
+            canvas.drawArc(mTrackOvalRectF, 180, 180, false, mTrackPaint);
+            return;
+        }
+        updateTrackPoints();
+        if (mode == SunriseSunsetStyle.TRACK_MODE_DOTTED) {
+            canvas.drawPoints(mTrackPoints, 0, mTrackPointCount, mTrackPaint);
+        } else {
+            canvas.drawLines(mTrackPoints, 0, mTrackPointCount, mTrackPaint);
+        }
+    }
+
+    // 沿半圆轨迹计算虚线线段(每段以若干条弦近似)或圆点的坐标
+    void updateTrackPoints() {
+        if (mTrackPointsValid) {
+            return;
+        }
+        mTrackPointCount = 0;
+        float radius = mTrackRadius;
+        if (radius > 0) {
+            double length = Math.PI * radius;
+            double dash = mStyle.getTrackDashLength();
+            double gap = mStyle.getTrackDashGap();
+            if (mStyle.getTrackMode() == SunriseSunsetStyle.TRACK_MODE_DOTTED) {
+                for (double position = dash / 2; position <= length; position += dash + gap) {
+                    appendTrackPoint(position);
+                }
+            } else if (gap <= 0) {
+                appendTrackArc(0, length);
+            } else {
+                for (double start = -TRACK_DASH_PHASE_PX; start < length; start += dash + gap) {
+                    double from = Math.max(0, start);
+                    double to = Math.min(length, start + dash);
+                    if (to > from) {
+                        appendTrackArc(from, to);
+                    }
+                }
+            }
+        }
+        mTrackPointsValid = true;
+    }
+
+    // 轨迹上弧长为 position 处的圆点
+    private void appendTrackPoint(double position) {
+        ensureTrackPointCapacity(2);
+        double angle = Math.PI + position / mTrackRadius;
+        mTrackPoints[mTrackPointCount++] = trackX(angle);
+        mTrackPoints[mTrackPointCount++] = trackY(angle);
+    }
+
+    // 轨迹上弧长 [from, to] 的一段, 以偏差不超过 TRACK_MAX_SAGITTA_PX 的若干条弦近似
+    private void appendTrackArc(double from, double to) {
+        float radius = mTrackRadius;
+        double maxChordAngle = radius > TRACK_MAX_SAGITTA_PX
+                ? 2 * Math.acos(1 - TRACK_MAX_SAGITTA_PX / radius) : Math.PI;
+        double startAngle = Math.PI + from / radius;
+        double sweep = (to - from) / radius;
+        int chords = Math.max(1, (int) Math.ceil(sweep / maxChordAngle));
+        ensureTrackPointCapacity(chords * 4);
+        float[] points = mTrackPoints;
+        int count = mTrackPointCount;
+        float x = trackX(startAngle);
+        float y = trackY(startAngle);
+        for (int i = 1; i <= chords; i++) {
+            double angle = startAngle + sweep * i / chords;
+            points[count++] = x;
+            points[count++] = y;
+            x = trackX(angle);
+            y = trackY(angle);
+            points[count++] = x;
+            points[count++] = y;
+        }
+        mTrackPointCount = count;
+    }
+
+    private float trackX(double angle) {
+        return mBoardRectF.left + mTrackRadius + mTrackRadius * (float) Math.cos(angle);
+    }
+
+    private float trackY(double angle) {
+        return mBoardRectF.bottom + mTrackRadius * (float) Math.sin(angle);
+    }
+
+    private void ensureTrackPointCapacity(int extra) {
+        int required = mTrackPointCount + extra;
+        if (mTrackPoints.length < required) {
+            mTrackPoints = Arrays.copyOf(mTrackPoints, Math.max(required, mTrackPoints.length * 2));
+        }
+    }
+
+    float[] getTrackPoints() {
+        return mTrackPoints;
+    }
+
+    int getTrackPointCount() {
+        return mTrackPointCount;
+    }
+
+    // 绘制日出日落阴影部分, 需要先调用 updateSunPosition
+    void drawShadow(Canvas canvas) {
+        prepareShadowPaint();
+
+        float endY = mBoardRectF.bottom;
+        Path path = mShadowPath;
+        path.rewind();
+        path.moveTo(0, endY);
+        path.arcTo(mTrackOvalRectF, 180, 180 * mRatio);
+        path.lineTo(mSunCenterX, endY);
+        path.close();
+        canvas.drawPath(path, mShadowPaint);
+    }
+
+    // 绘制轨迹内的天空渐变及晨昏蒙影色带, 位于其他内容之下. 没有需要绘制的内容时返回false
+    boolean drawSky(Canvas canvas) {
+        boolean sky = mStyle.hasSky();
+        boolean bands = mStyle.hasTwilightBands() && mTwilight != null;
+        if ((!sky && !bands) || mTrackRadius <= 0) {
+            return false;
+        }
+        updateSkyGeometry();
+        if (sky) {
+            Shader shader = mSkyShaders[mSkyPhase];
+            if (shader == null) {
+                shader = createSkyShader(mSkyPhase);
+                mSkyShaders[mSkyPhase] = shader;
+            }
+            mSkyPaint.setShader(shader);
+            canvas.drawPath(mSkyPath, mSkyPaint);
+        }
+        if (bands) {
+            updateTwilightShaders();
+            for (int i = 0; i < TWILIGHT_BAND_COUNT; i++) {
+                if (mTwilightBandShaders[i] != null) {
+                    mSkyPaint.setShader(mTwilightBandShaders[i]);
+                    canvas.drawPath(mTwilightBandPaths[i], mSkyPaint);
+                }
+            }
+        }
+        mSkyPaint.setShader(null);
+        return true;
+    }
+
+    // 重新计算天空及色带的路径, 已创建的 Shader 全部失效
+    private void updateSkyGeometry() {
+        if (mSkyGeometryValid) {
+            return;
+        }
+        mSkyPath.rewind();
+        mSkyPath.arcTo(mTrackOvalRectF, 180, 180, true);
+        mSkyPath.close();
+
+        float centerX = mBoardRectF.centerX();
+        float centerY = mBoardRectF.bottom;
+        float bandWidth = mStyle.getTwilightBandWidth();
+        for (int i = 0; i < TWILIGHT_BAND_COUNT; i++) {
+            Path path = mTwilightBandPaths[i];
+            path.rewind();
+            float outer = mTrackRadius - i * bandWidth;
+            float inner = outer - bandWidth;
+            if (bandWidth <= 0 || inner < 0) {
+                continue;
+            }
+            // 轨迹内侧的半圆环
+            mTwilightOvalRectF.set(centerX - outer, centerY - outer, centerX + outer, centerY + outer);
+            path.arcTo(mTwilightOvalRectF, 180, 180, true);
+            mTwilightOvalRectF.set(centerX - inner, centerY - inner, centerX + inner, centerY + inner);
+            path.arcTo(mTwilightOvalRectF, 0, -180);
+            path.close();
+        }
+        Arrays.fill(mSkyShaders, null);
+        mTwilightShadersValid = false;
+        mSkyGeometryValid = true;
+    }
+
+    // 天空从顶部到地平线的渐变, 顶部颜色随阶段由白昼过渡到夜晚, 地平线为对应晨昏蒙影的颜色
+    private Shader createSkyShader(int phase) {
+        SunriseSunsetStyle style = mStyle;
+        int topColor = blendColor(style.getSkyNightColor(), style.getSkyDayColor(), SKY_DAY_FRACTIONS[phase]);
+        int horizonColor;
+        switch (phase) {
+            case TwilightDay.PHASE_DAY:
+                horizonColor = style.getSkyDayColor();
+                break;
+            case TwilightDay.PHASE_CIVIL:
+                horizonColor = style.getCivilTwilightColor();
+                break;
+            case TwilightDay.PHASE_NAUTICAL:
+                horizonColor = style.getNauticalTwilightColor();
+                break;
+            case TwilightDay.PHASE_ASTRONOMICAL:
+                horizonColor = style.getAstronomicalTwilightColor();
+                break;
+            default:
+                horizonColor = style.getSkyNightColor();
+                break;
+        }
+        return new LinearGradient(0, mBoardRectF.top, 0, mBoardRectF.bottom,
+                topColor, horizonColor, Shader.TileMode.CLAMP);
+    }
+
+    // 各色带的角度渐变: 从两端地平线处的不透明逐渐变为透明, 延伸角度与晨昏蒙影时长占白昼时长的比例一致
+    private void updateTwilightShaders() {
+        if (mTwilightShadersValid) {
+            return;
+        }
+        mTwilightShadersValid = true;
+        Arrays.fill(mTwilightBandShaders, null);
+        TwilightDay twilight = mTwilight;
+        int dayMinutes = dayLengthMinutes(twilight);
+        if (dayMinutes <= 0) {
+            return;
+        }
+        int[] colors = {mStyle.getCivilTwilightColor(), mStyle.getNauticalTwilightColor(), mStyle.getAstronomicalTwilightColor()};
+        float centerX = mBoardRectF.centerX();
+        float centerY = mBoardRectF.bottom;
+        for (int i = 0; i < TWILIGHT_BAND_COUNT; i++) {
+            int phase = TwilightDay.PHASE_CIVIL + i;
+            float morning = twilightSweepDegrees(twilight.getMorningMinutes(phase), dayMinutes);
+            float evening = twilightSweepDegrees(twilight.getEveningMinutes(phase), dayMinutes);
+            if (morning <= 0 && evening <= 0) {
+                continue;
+            }
+            int color = colors[i];
+            int transparent = color & 0x00FFFFFF;
+            // SweepGradient 从3点钟方向顺时针, 上半圆为 180° - 360°
+            mTwilightBandShaders[i] = new SweepGradient(centerX, centerY,
+                    new int[]{color, color, transparent, transparent, color},
+                    new float[]{0, 0.5f, 0.5f + morning / 360, 1 - evening / 360, 1});
+        }
+    }
+
+    private static int dayLengthMinutes(TwilightDay twilight) {
+        int sunrise = twilight.getStartMinute(TwilightDay.PHASE_DAY);
+        int sunset = twilight.getEndMinute(TwilightDay.PHASE_DAY);
+        if (sunrise < 0 || sunset < 0) {
+            return 0;
+        }
+        int minutes = sunset - sunrise;
+        return minutes < 0 ? minutes + TimeOfDay.MINUTES_PER_DAY : minutes;
+    }
+
+    private static float twilightSweepDegrees(int twilightMinutes, int dayMinutes) {
+        return Math.min(MAX_TWILIGHT_SWEEP_DEGREES, 180f * twilightMinutes / dayMinutes);
+    }
+
+    // 按比例混合两个颜色的各通道
+    private static int blendColor(int from, int to, float fraction) {
+        int a = (int) (Color.alpha(from) + (Color.alpha(to) - Color.alpha(from)) * fraction);
+        int r = (int) (Color.red(from) + (Color.red(to) - Color.red(from)) * fraction);
+        int g = (int) (Color.green(from) + (Color.green(to) - Color.green(from)) * fraction);
+        int b = (int) (Color.blue(from) + (Color.blue(to) - Color.blue(from)) * fraction);
+        return Color.argb(a, r, g, b);
+    }
+
+    // 绘制太阳, 需要先调用 updateSunPosition
+    void drawSun(Canvas canvas) {
+        prepareSunPaint();
+        canvas.drawCircle(mSunCenterX, mSunCenterY, mStyle.getSunRadius(), mSunPaint);
+    }
+
+    // 是否有可绘制的标签
+    boolean hasLabels() {
+        return mSunriseTime != null && mSunsetTime != null;
+    }
+
+    // 绘制日出日落标签
+    void drawSunriseSunsetLabel(Canvas canvas) {
+        if (!hasLabels()) {
+            return;
+        }
+        prepareLabelPaint();
+        if (mTimeline != null) {
+            drawDayLabels(canvas, mTimelineLabelDay);
+            return;
+        }
+        updateLabelCache();
+
+        // 绘制日出时间
+        canvas.drawText(mSunriseLabelChars, 0, mSunriseLabelLength, mSunriseLabelX, mLabelBaseLineY, mLabelPaint);
+        // 绘制日落时间
+        canvas.drawText(mSunsetLabelChars, 0, mSunsetLabelLength, mSunsetLabelX - mSunsetLabelWidth, mLabelBaseLineY, mLabelPaint);
+    }
+
+    // 绘制时间轴中某一天的标签, 每天的标签只格式化和测量一次
+    private void drawDayLabels(Canvas canvas, int day) {
+        int sunriseIndex = day * 2;
+        int sunsetIndex = sunriseIndex + 1;
+        if (mDayLabelLengths[sunriseIndex] < 0) {
+            formatDayLabels(day);
+        }
+        if (Float.isNaN(mDayLabelWidths[sunriseIndex])) {
+            mDayLabelWidths[sunriseIndex] = mLabelPaint.measureText(mDayLabelChars[sunriseIndex], 0, mDayLabelLengths[sunriseIndex]);
+            mDayLabelWidths[sunsetIndex] = mLabelPaint.measureText(mDayLabelChars[sunsetIndex], 0, mDayLabelLengths[sunsetIndex]);
+        }
+        canvas.drawText(mDayLabelChars[sunriseIndex], 0, mDayLabelLengths[sunriseIndex], mSunriseLabelX, mLabelBaseLineY, mLabelPaint);
+        canvas.drawText(mDayLabelChars[sunsetIndex], 0, mDayLabelLengths[sunsetIndex],
+                mSunsetLabelX - mDayLabelWidths[sunsetIndex], mLabelBaseLineY, mLabelPaint);
+    }
+
+    private void formatDayLabels(int day) {
+        TimeOfDay sunrise = TimeOfDay.ofMinuteOfDay(mTimeline.getSunriseMinute(day));
+        TimeOfDay sunset = TimeOfDay.ofMinuteOfDay(mTimeline.getSunsetMinute(day));
+        StringBuilder builder = mLabelBuilder;
+        SunriseSunsetLabelBufferFormatter bufferFormatter = bufferFormatterOf(mLabelFormatter);
+
+        builder.setLength(0);
+        if (bufferFormatter != null) {
+            bufferFormatter.formatSunriseLabel(sunrise, builder);
+        } else {
+            builder.append(mLabelFormatter.formatSunriseLabel(new Time(sunrise)));
+        }
+        storeDayLabel(day * 2, builder);
+
+        builder.setLength(0);
+        if (bufferFormatter != null) {
+            bufferFormatter.formatSunsetLabel(sunset, builder);
+        } else {
+            builder.append(mLabelFormatter.formatSunsetLabel(new Time(sunset)));
+        }
+        storeDayLabel(day * 2 + 1, builder);
+    }
+
+    /**
+     * 可以直接写入缓冲区时返回对应的格式化器, 否则返回null.
+     * 只有显式实现了 SunriseSunsetLabelBufferFormatter 的格式化器才走缓冲区
+     */
+    static SunriseSunsetLabelBufferFormatter bufferFormatterOf(SunriseSunsetLabelFormatter formatter) {
+        if (formatter instanceof SunriseSunsetLabelBufferFormatter) {
+            return (SunriseSunsetLabelBufferFormatter) formatter;
+        }
+        return null;
+    }
+
+    private void storeDayLabel(int index, StringBuilder builder) {
+        char[] chars = mDayLabelChars[index];
+        mDayLabelChars[index] = copyChars(builder, chars == null ? new char[builder.length()] : chars);
+        mDayLabelLengths[index] = builder.length();
+        mDayLabelWidths[index] = Float.NaN;
+    }
+
+    // 格式化器变化后, 时间轴的标签需要重新格式化
+    private void invalidateDayLabels() {
+        if (mDayLabelLengths != null) {
+            Arrays.fill(mDayLabelLengths, -1);
+            invalidateDayLabelWidths();
+        }
+    }
+
+    // 文字大小变化后, 时间轴的标签需要重新测量
+    private void invalidateDayLabelWidths() {
+        if (mDayLabelWidths != null) {
+            Arrays.fill(mDayLabelWidths, Float.NaN);
+        }
+    }
+
+    // 标签缓存失效
+    private void invalidateLabelCache() {
+        mLabelCacheValid = false;
+        mStaticContentVersion++;
+    }
+
+    // 重新格式化并测量标签文字
+    private void updateLabelCache() {
+        if (mLabelCacheValid) {
+            return;
+        }
+        StringBuilder builder = mLabelBuilder;
+        SunriseSunsetLabelBufferFormatter bufferFormatter = bufferFormatterOf(mLabelFormatter);
+
+        builder.setLength(0);
+        if (bufferFormatter != null) {
+            bufferFormatter.formatSunriseLabel(mSunriseTime, builder);
+        } else {
+            builder.append(mLabelFormatter.formatSunriseLabel(new Time(mSunriseTime)));
+        }
+        mSunriseLabelChars = copyChars(builder, mSunriseLabelChars);
+        mSunriseLabelLength = builder.length();
+        mSunriseLabelWidth = mLabelPaint.measureText(mSunriseLabelChars, 0, mSunriseLabelLength);
+
+        builder.setLength(0);
+        if (bufferFormatter != null) {
+            bufferFormatter.formatSunsetLabel(mSunsetTime, builder);
+        } else {
+            builder.append(mLabelFormatter.formatSunsetLabel(new Time(mSunsetTime)));
+        }
+        mSunsetLabelChars = copyChars(builder, mSunsetLabelChars);
+        mSunsetLabelLength = builder.length();
+        mSunsetLabelWidth = mLabelPaint.measureText(mSunsetLabelChars, 0, mSunsetLabelLength);
+
+        mLabelCacheValid = true;
+    }
+
+    // 将builder中的字符拷贝到dest中, 容量不足时扩容
+    private static char[] copyChars(StringBuilder builder, char[] dest) {
+        int length = builder.length();
+        if (dest.length < length) {
+            dest = new char[length];
+        }
+        builder.getChars(0, length, dest, 0);
+        return dest;
+    }
+}
@@ -0,0 +1,139 @@
+package com.github.tianma8023.ssv;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+
+/**
+ * 进程内共享的 SunriseSunsetView 调度器, 适用于同时显示大量 View 的列表或桌面.
+ * <p>
+ * 开启了 {@link SunriseSunsetView#setUseSharedScheduler(boolean)} 的 View 在可见时注册到调度器,
+ * 不可见或 detach 后自动注销. 调度器只使用一个 {@link Choreographer} 帧回调驱动所有 View 的动画,
+ * 只使用一个定时任务驱动所有实时模式的 View, 每次定时任务只读取一次时钟.
+ * <p>
+ * 只能在主线程中使用.
+ */
+public final class SunriseSunsetScheduler {
+
+    private static SunriseSunsetScheduler sInstance;
+
+    private final ArrayList<SunriseSunsetView> mViews = new ArrayList<>();
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private SunClock mClock = SunClock.SYSTEM;
+    private boolean mFrameCallbackPosted;
+
+    private final Choreographer.FrameCallback mFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mFrameCallbackPosted = false;
+            onAnimationFrame(frameTimeNanos);
+        }
+    };
+
+    private final Runnable mLiveTick = new Runnable() {
+        @Override
+        public void run() {
+            onLiveTick();
+        }
+    };
+
+    private SunriseSunsetScheduler() {
+    }
+
+    public static SunriseSunsetScheduler getInstance() {
+        if (sInstance == null) {
+            sInstance = new SunriseSunsetScheduler();
+        }
+        return sInstance;
+    }
+
+    /**
+     * 设置实时模式使用的时钟, 默认为 {@link SunClock#SYSTEM}
+     */
+    public void setClock(SunClock clock) {
+        mClock = clock == null ? SunClock.SYSTEM : clock;
+        requestLiveTick();
+    }
+
+    public SunClock getClock() {
+        return mClock;
+    }
+
+    /**
+     * 当前注册的(可见的) View 数量
+     */
+    public int getRegisteredViewCount() {
+        return mViews.size();
+    }
+
+    void register(SunriseSunsetView view) {
+        if (!mViews.contains(view)) {
+            mViews.add(view);
+        }
+        if (view.isSharedAnimating()) {
+            requestAnimationFrame();
+        }
+        if (view.isLiveMode()) {
+            requestLiveTick();
+        }
+    }
+
+    void unregister(SunriseSunsetView view) {
+        mViews.remove(view);
+        if (mViews.isEmpty()) {
+            mHandler.removeCallbacks(mLiveTick);
+            if (mFrameCallbackPosted) {
+                Choreographer.getInstance().removeFrameCallback(mFrameCallback);
+                mFrameCallbackPosted = false;
+            }
+        }
+    }
+
+    void requestAnimationFrame() {
+        if (!mFrameCallbackPosted) {
+            mFrameCallbackPosted = true;
+            Choreographer.getInstance().postFrameCallback(mFrameCallback);
+        }
+    }
+
+    /**
+     * 实时模式的 View 或其日出日落时间发生变化时, 立即重新计算所有 View 并安排下一次定时任务
+     */
+    void requestLiveTick() {
+        mHandler.removeCallbacks(mLiveTick);
+        mHandler.post(mLiveTick);
+    }
+
+    // 同一帧内驱动所有正在动画的 View, 倒序遍历以允许回调中注销
+    private void onAnimationFrame(long frameTimeNanos) {
+        boolean animating = false;
+        for (int i = mViews.size() - 1; i >= 0; i--) {
+            if (i < mViews.size() && mViews.get(i).doSharedAnimationFrame(frameTimeNanos)) {
+                animating = true;
+            }
+        }
+        if (animating) {
+            requestAnimationFrame();
+        }
+    }
+
+    // 读取一次时钟, 更新所有实时模式的 View, 并按最早需要更新的 View 安排下一次定时任务
+    private void onLiveTick() {
+        long millisOfDay = SunTiming.millisOfDay(mClock);
+        long nextDelay = Long.MAX_VALUE;
+        for (int i = mViews.size() - 1; i >= 0; i--) {
+            if (i >= mViews.size()) {
+                continue;
+            }
+            long delay = mViews.get(i).doSharedLiveTick(millisOfDay);
+            if (delay > 0 && delay < nextDelay) {
+                nextDelay = delay;
+            }
+        }
+        if (nextDelay != Long.MAX_VALUE) {
+            mHandler.postDelayed(mLiveTick, nextDelay);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.tianma8023.ssv;
+
+import com.github.tianma8023.model.TimeOfDay;
+
+/**
+ * SunriseSunsetView 的不可变状态: 日出日落时间、比率及样式,
+ * 通过 {@link SunriseSunsetView#bind(SunriseSunsetState)} 一次性应用, 适用于 RecyclerView 等复用场景.
+ */
+public final class SunriseSunsetState {
+
+    private final TimeOfDay sunrise;
+    private final TimeOfDay sunset;
+    private final float ratio;
+    private final SunriseSunsetStyle style;
+
+    /**
+     * @param sunrise 日出时间
+     * @param sunset  日落时间
+     * @param ratio   日出日落比率, 参见 {@link SunriseSunsetView#setRatio(float)}
+     * @param style   样式, 为null时保留View当前的样式
+     */
+    public SunriseSunsetState(TimeOfDay sunrise, TimeOfDay sunset, float ratio, SunriseSunsetStyle style) {
+        this.sunrise = sunrise;
+        this.sunset = sunset;
+        this.ratio = ratio;
+        this.style = style;
+    }
+
+    public TimeOfDay getSunrise() {
+        return sunrise;
+    }
+
+    public TimeOfDay getSunset() {
+        return sunset;
+    }
+
+    public float getRatio() {
+        return ratio;
+    }
+
+    public SunriseSunsetStyle getStyle() {
+        return style;
+    }
+
+    /**
+     * 返回只修改了比率的新状态
+     */
+    public SunriseSunsetState withRatio(float ratio) {
+        return new SunriseSunsetState(sunrise, sunset, ratio, style);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SunriseSunsetState)) {
+            return false;
+        }
+        SunriseSunsetState other = (SunriseSunsetState) o;
+        return Float.compare(ratio, other.ratio) == 0
+                && (sunrise != null ? sunrise.equals(other.sunrise) : other.sunrise == null)
+                && (sunset != null ? sunset.equals(other.sunset) : other.sunset == null)
+                && (style != null ? style.equals(other.style) : other.style == null);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = sunrise != null ? sunrise.hashCode() : 0;
+        result = 31 * result + (sunset != null ? sunset.hashCode() : 0);
+        result = 31 * result + Float.floatToIntBits(ratio);
+        result = 31 * result + (style != null ? style.hashCode() : 0);
+        return result;
+    }
+}
@@ -0,0 +1,480 @@
+package com.github.tianma8023.ssv;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Color;
+import android.graphics.DashPathEffect;
+import android.graphics.Paint;
+import android.graphics.PathEffect;
+import android.util.AttributeSet;
+
+/**
+ * SunriseSunsetView 的不可变样式, 通过 {@link Builder} 创建.
+ * <p>
+ * 样式不持有任何 View 或 Context, 可以在多个 View 之间共享.
+ */
+public final class SunriseSunsetStyle {
+
+    /**
+     * 使用 drawArc 及 {@link Builder#setTrackPathEffect(PathEffect)} 绘制轨迹(默认)
+     */
+    public static final int TRACK_MODE_PATH_EFFECT = 0;
+    /**
+     * 预先计算轨迹上的虚线线段, 每帧通过一次 drawLines 绘制, 不使用 PathEffect, 适合硬件加速
+     */
+    public static final int TRACK_MODE_DASHED = 1;
+    /**
+     * 预先计算轨迹上的圆点, 每帧通过一次 drawPoints 绘制, 圆点直径为轨迹宽度
+     */
+    public static final int TRACK_MODE_DOTTED = 2;
+
+    private static final int DEFAULT_TRACK_COLOR = Color.WHITE;
+    private static final int DEFAULT_TRACK_WIDTH_PX = 4;
+    private static final float DEFAULT_TRACK_DASH_LENGTH_PX = 15;
+    private static final float DEFAULT_TRACK_DASH_GAP_PX = 15;
+
+    private static final int DEFAULT_SUN_COLOR = Color.YELLOW;
+    private static final int DEFAULT_SUN_RADIUS_PX = 20;
+
+    private static final int DEFAULT_SHADOW_COLOR = Color.parseColor("#32FFFFFF");
+
+    private static final int DEFAULT_LABEL_TEXT_COLOR = Color.WHITE;
+    private static final int DEFAULT_LABEL_TEXT_SIZE = 40;
+    private static final int DEFAULT_LABEL_VERTICAL_OFFSET_PX = 5;
+    private static final int DEFAULT_LABEL_HORIZONTAL_OFFSET_PX = 20;
+
+    private static final int DEFAULT_CIVIL_TWILIGHT_COLOR = Color.parseColor("#80FFB74D");
+    private static final int DEFAULT_NAUTICAL_TWILIGHT_COLOR = Color.parseColor("#807986CB");
+    private static final int DEFAULT_ASTRONOMICAL_TWILIGHT_COLOR = Color.parseColor("#80303F9F");
+
+    // 默认的轨迹虚线效果, 所有默认样式共享同一个实例
+    private static final PathEffect DEFAULT_TRACK_PATH_EFFECT =
+            new DashPathEffect(new float[]{DEFAULT_TRACK_DASH_LENGTH_PX, DEFAULT_TRACK_DASH_GAP_PX}, 1);
+
+    /**
+     * 默认样式
+     */
+    public static final SunriseSunsetStyle DEFAULT = new Builder().build();
+
+    private final int trackColor;
+    private final int trackWidth;
+    private final PathEffect trackPathEffect;
+    private final int trackMode;
+    private final float trackDashLength;
+    private final float trackDashGap;
+    private final int shadowColor;
+    private final int sunColor;
+    private final float sunRadius;
+    private final Paint.Style sunPaintStyle;
+    private final int labelTextSize;
+    private final int labelTextColor;
+    private final int labelVerticalOffset;
+    private final int labelHorizontalOffset;
+    private final float twilightBandWidth;
+    private final int civilTwilightColor;
+    private final int nauticalTwilightColor;
+    private final int astronomicalTwilightColor;
+    private final int skyDayColor;
+    private final int skyNightColor;
+
+    private SunriseSunsetStyle(Builder builder) {
+        trackColor = builder.trackColor;
+        trackWidth = builder.trackWidth;
+        trackPathEffect = builder.trackPathEffect;
+        trackMode = builder.trackMode;
+        trackDashLength = builder.trackDashLength;
+        trackDashGap = builder.trackDashGap;
+        shadowColor = builder.shadowColor;
+        sunColor = builder.sunColor;
+        sunRadius = builder.sunRadius;
+        sunPaintStyle = builder.sunPaintStyle;
+        labelTextSize = builder.labelTextSize;
+        labelTextColor = builder.labelTextColor;
+        labelVerticalOffset = builder.labelVerticalOffset;
+        labelHorizontalOffset = builder.labelHorizontalOffset;
+        twilightBandWidth = builder.twilightBandWidth;
+        civilTwilightColor = builder.civilTwilightColor;
+        nauticalTwilightColor = builder.nauticalTwilightColor;
+        astronomicalTwilightColor = builder.astronomicalTwilightColor;
+        skyDayColor = builder.skyDayColor;
+        skyNightColor = builder.skyNightColor;
+    }
+
+    public int getTrackColor() {
+        return trackColor;
+    }
+
+    public int getTrackWidth() {
+        return trackWidth;
+    }
+
+    public PathEffect getTrackPathEffect() {
+        return trackPathEffect;
+    }
+
+    public int getTrackMode() {
+        return trackMode;
+    }
+
+    public float getTrackDashLength() {
+        return trackDashLength;
+    }
+
+    public float getTrackDashGap() {
+        return trackDashGap;
+    }
+
+    public int getShadowColor() {
+        return shadowColor;
+    }
+
+    public int getSunColor() {
+        return sunColor;
+    }
+
+    public float getSunRadius() {
+        return sunRadius;
+    }
+
+    public Paint.Style getSunPaintStyle() {
+        return sunPaintStyle;
+    }
+
+    public int getLabelTextSize() {
+        return labelTextSize;
+    }
+
+    public int getLabelTextColor() {
+        return labelTextColor;
+    }
+
+    public int getLabelVerticalOffset() {
+        return labelVerticalOffset;
+    }
+
+    public int getLabelHorizontalOffset() {
+        return labelHorizontalOffset;
+    }
+
+    public float getTwilightBandWidth() {
+        return twilightBandWidth;
+    }
+
+    public int getCivilTwilightColor() {
+        return civilTwilightColor;
+    }
+
+    public int getNauticalTwilightColor() {
+        return nauticalTwilightColor;
+    }
+
+    public int getAstronomicalTwilightColor() {
+        return astronomicalTwilightColor;
+    }
+
+    public int getSkyDayColor() {
+        return skyDayColor;
+    }
+
+    public int getSkyNightColor() {
+        return skyNightColor;
+    }
+
+    /**
+     * 是否绘制晨昏蒙影色带
+     */
+    public boolean hasTwilightBands() {
+        return twilightBandWidth > 0;
+    }
+
+    /**
+     * 是否绘制天空渐变
+     */
+    public boolean hasSky() {
+        return skyDayColor != Color.TRANSPARENT || skyNightColor != Color.TRANSPARENT;
+    }
+
+    /**
+     * 从 ssv_* 属性创建样式, 未设置的属性使用默认值
+     *
+     * @param attrs        布局中的属性, 可以为null
+     * @param defStyleAttr 主题中默认样式的属性, 为0时不使用
+     * @param defStyleRes  默认样式资源, 为0时不使用
+     */
+    public static SunriseSunsetStyle fromAttributes(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.SunriseSunsetView, defStyleAttr, defStyleRes);
+        if (a == null) {
+            return DEFAULT;
+        }
+        try {
+            return fromTypedArray(a);
+        } finally {
+            a.recycle();
+        }
+    }
+
+    /**
+     * 从 style 资源中的 ssv_* 属性创建样式, 便于在多个View之间共享同一个样式
+     */
+    public static SunriseSunsetStyle fromStyleResource(Context context, int styleRes) {
+        TypedArray a = context.obtainStyledAttributes(styleRes, R.styleable.SunriseSunsetView);
+        try {
+            return fromTypedArray(a);
+        } finally {
+            a.recycle();
+        }
+    }
+
+    private static SunriseSunsetStyle fromTypedArray(TypedArray a) {
+        return new Builder()
+                .setTrackColor(a.getColor(R.styleable.SunriseSunsetView_ssv_track_color, DEFAULT_TRACK_COLOR))
+                .setTrackWidth(a.getDimensionPixelSize(R.styleable.SunriseSunsetView_ssv_track_width, DEFAULT_TRACK_WIDTH_PX))
+                .setTrackMode(a.getInt(R.styleable.SunriseSunsetView_ssv_track_mode, TRACK_MODE_PATH_EFFECT))
+                .setTrackDash(a.getDimension(R.styleable.SunriseSunsetView_ssv_track_dash_length, DEFAULT_TRACK_DASH_LENGTH_PX),
+                        a.getDimension(R.styleable.SunriseSunsetView_ssv_track_dash_gap, DEFAULT_TRACK_DASH_GAP_PX))
+                .setShadowColor(a.getColor(R.styleable.SunriseSunsetView_ssv_shadow_color, DEFAULT_SHADOW_COLOR))
+                .setSunColor(a.getColor(R.styleable.SunriseSunsetView_ssv_sun_color, DEFAULT_SUN_COLOR))
+                .setSunRadius(a.getDimensionPixelSize(R.styleable.SunriseSunsetView_ssv_sun_radius, DEFAULT_SUN_RADIUS_PX))
+                .setLabelTextColor(a.getColor(R.styleable.SunriseSunsetView_ssv_label_text_color, DEFAULT_LABEL_TEXT_COLOR))
+                .setLabelTextSize(a.getDimensionPixelSize(R.styleable.SunriseSunsetView_ssv_label_text_size, DEFAULT_LABEL_TEXT_SIZE))
+                .setLabelVerticalOffset(a.getDimensionPixelOffset(R.styleable.SunriseSunsetView_ssv_label_vertical_offset, DEFAULT_LABEL_VERTICAL_OFFSET_PX))
+                .setLabelHorizontalOffset(a.getDimensionPixelOffset(R.styleable.SunriseSunsetView_ssv_label_horizontal_offset, DEFAULT_LABEL_HORIZONTAL_OFFSET_PX))
+                .setTwilightBandWidth(a.getDimension(R.styleable.SunriseSunsetView_ssv_twilight_band_width, 0))
+                .setTwilightColors(a.getColor(R.styleable.SunriseSunsetView_ssv_civil_twilight_color, DEFAULT_CIVIL_TWILIGHT_COLOR),
+                        a.getColor(R.styleable.SunriseSunsetView_ssv_nautical_twilight_color, DEFAULT_NAUTICAL_TWILIGHT_COLOR),
+                        a.getColor(R.styleable.SunriseSunsetView_ssv_astronomical_twilight_color, DEFAULT_ASTRONOMICAL_TWILIGHT_COLOR))
+                .setSkyColors(a.getColor(R.styleable.SunriseSunsetView_ssv_sky_day_color, Color.TRANSPARENT),
+                        a.getColor(R.styleable.SunriseSunsetView_ssv_sky_night_color, Color.TRANSPARENT))
+                .build();
+    }
+
+    /**
+     * 以当前样式为基础创建 Builder
+     */
+    public Builder buildUpon() {
+        return new Builder(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SunriseSunsetStyle)) {
+            return false;
+        }
+        SunriseSunsetStyle other = (SunriseSunsetStyle) o;
+        return trackColor == other.trackColor
+                && trackWidth == other.trackWidth
+                && trackPathEffect == other.trackPathEffect
+                && trackMode == other.trackMode
+                && Float.compare(trackDashLength, other.trackDashLength) == 0
+                && Float.compare(trackDashGap, other.trackDashGap) == 0
+                && shadowColor == other.shadowColor
+                && sunColor == other.sunColor
+                && Float.compare(sunRadius, other.sunRadius) == 0
+                && sunPaintStyle == other.sunPaintStyle
+                && labelTextSize == other.labelTextSize
+                && labelTextColor == other.labelTextColor
+                && labelVerticalOffset == other.labelVerticalOffset
+                && labelHorizontalOffset == other.labelHorizontalOffset
+                && Float.compare(twilightBandWidth, other.twilightBandWidth) == 0
+                && civilTwilightColor == other.civilTwilightColor
+                && nauticalTwilightColor == other.nauticalTwilightColor
+                && astronomicalTwilightColor == other.astronomicalTwilightColor
+                && skyDayColor == other.skyDayColor
+                && skyNightColor == other.skyNightColor;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = trackColor;
+        result = 31 * result + trackWidth;
+        result = 31 * result + (trackPathEffect != null ? trackPathEffect.hashCode() : 0);
+        result = 31 * result + trackMode;
+        result = 31 * result + Float.floatToIntBits(trackDashLength);
+        result = 31 * result + Float.floatToIntBits(trackDashGap);
+        result = 31 * result + shadowColor;
+        result = 31 * result + sunColor;
+        result = 31 * result + Float.floatToIntBits(sunRadius);
+        result = 31 * result + (sunPaintStyle != null ? sunPaintStyle.hashCode() : 0);
+        result = 31 * result + labelTextSize;
+        result = 31 * result + labelTextColor;
+        result = 31 * result + labelVerticalOffset;
+        result = 31 * result + labelHorizontalOffset;
+        result = 31 * result + Float.floatToIntBits(twilightBandWidth);
+        result = 31 * result + civilTwilightColor;
+        result = 31 * result + nauticalTwilightColor;
+        result = 31 * result + astronomicalTwilightColor;
+        result = 31 * result + skyDayColor;
+        result = 31 * result + skyNightColor;
+        return result;
+    }
+
+    public static final class Builder {
+        private int trackColor = DEFAULT_TRACK_COLOR;
+        private int trackWidth = DEFAULT_TRACK_WIDTH_PX;
+        private PathEffect trackPathEffect = DEFAULT_TRACK_PATH_EFFECT;
+        private int trackMode = TRACK_MODE_PATH_EFFECT;
+        private float trackDashLength = DEFAULT_TRACK_DASH_LENGTH_PX;
+        private float trackDashGap = DEFAULT_TRACK_DASH_GAP_PX;
+        private int shadowColor = DEFAULT_SHADOW_COLOR;
+        private int sunColor = DEFAULT_SUN_COLOR;
+        private float sunRadius = DEFAULT_SUN_RADIUS_PX;
+        private Paint.Style sunPaintStyle = Paint.Style.FILL;
+        private int labelTextSize = DEFAULT_LABEL_TEXT_SIZE;
+        private int labelTextColor = DEFAULT_LABEL_TEXT_COLOR;
+        private int labelVerticalOffset = DEFAULT_LABEL_VERTICAL_OFFSET_PX;
+        private int labelHorizontalOffset = DEFAULT_LABEL_HORIZONTAL_OFFSET_PX;
+        private float twilightBandWidth;
+        private int civilTwilightColor = DEFAULT_CIVIL_TWILIGHT_COLOR;
+        private int nauticalTwilightColor = DEFAULT_NAUTICAL_TWILIGHT_COLOR;
+        private int astronomicalTwilightColor = DEFAULT_ASTRONOMICAL_TWILIGHT_COLOR;
+        private int skyDayColor = Color.TRANSPARENT;
+        private int skyNightColor = Color.TRANSPARENT;
+
+        public Builder() {
+        }
+
+        public Builder(SunriseSunsetStyle style) {
+            trackColor = style.trackColor;
+            trackWidth = style.trackWidth;
+            trackPathEffect = style.trackPathEffect;
+            trackMode = style.trackMode;
+            trackDashLength = style.trackDashLength;
+            trackDashGap = style.trackDashGap;
+            shadowColor = style.shadowColor;
+            sunColor = style.sunColor;
+            sunRadius = style.sunRadius;
+            sunPaintStyle = style.sunPaintStyle;
+            labelTextSize = style.labelTextSize;
+            labelTextColor = style.labelTextColor;
+            labelVerticalOffset = style.labelVerticalOffset;
+            labelHorizontalOffset = style.labelHorizontalOffset;
+            twilightBandWidth = style.twilightBandWidth;
+            civilTwilightColor = style.civilTwilightColor;
+            nauticalTwilightColor = style.nauticalTwilightColor;
+            astronomicalTwilightColor = style.astronomicalTwilightColor;
+            skyDayColor = style.skyDayColor;
+            skyNightColor = style.skyNightColor;
+        }
+
+        public Builder setTrackColor(int trackColor) {
+            this.trackColor = trackColor;
+            return this;
+        }
+
+        public Builder setTrackWidth(int trackWidthInPx) {
+            this.trackWidth = trackWidthInPx;
+            return this;
+        }
+
+        /**
+         * 轨迹的 PathEffect, 传入null绘制实线. PathEffect 创建后不可修改, 可以安全地共享
+         */
+        public Builder setTrackPathEffect(PathEffect trackPathEffect) {
+            this.trackPathEffect = trackPathEffect;
+            return this;
+        }
+
+        /**
+         * 轨迹的绘制方式
+         *
+         * @param trackMode {@link #TRACK_MODE_PATH_EFFECT}, {@link #TRACK_MODE_DASHED} 或 {@link #TRACK_MODE_DOTTED}
+         */
+        public Builder setTrackMode(int trackMode) {
+            if (trackMode != TRACK_MODE_PATH_EFFECT && trackMode != TRACK_MODE_DASHED && trackMode != TRACK_MODE_DOTTED) {
+                throw new IllegalArgumentException("Unknown track mode: " + trackMode);
+            }
+            this.trackMode = trackMode;
+            return this;
+        }
+
+        /**
+         * {@link #TRACK_MODE_DASHED} 的线段长度及间隔, {@link #TRACK_MODE_DOTTED} 的圆点间距为两者之和.
+         * 间隔为0时 {@link #TRACK_MODE_DASHED} 绘制实线. 默认与默认的 PathEffect 相同, 均为15px
+         */
+        public Builder setTrackDash(float dashLengthInPx, float gapInPx) {
+            if (dashLengthInPx <= 0 || gapInPx < 0) {
+                throw new IllegalArgumentException("Invalid track dash: " + dashLengthInPx + ", " + gapInPx);
+            }
+            this.trackDashLength = dashLengthInPx;
+            this.trackDashGap = gapInPx;
+            return this;
+        }
+
+        public Builder setShadowColor(int shadowColor) {
+            this.shadowColor = shadowColor;
+            return this;
+        }
+
+        public Builder setSunColor(int sunColor) {
+            this.sunColor = sunColor;
+            return this;
+        }
+
+        public Builder setSunRadius(float sunRadius) {
+            this.sunRadius = sunRadius;
+            return this;
+        }
+
+        public Builder setSunPaintStyle(Paint.Style sunPaintStyle) {
+            this.sunPaintStyle = sunPaintStyle;
+            return this;
+        }
+
+        public Builder setLabelTextSize(int labelTextSize) {
+            this.labelTextSize = labelTextSize;
+            return this;
+        }
+
+        public Builder setLabelTextColor(int labelTextColor) {
+            this.labelTextColor = labelTextColor;
+            return this;
+        }
+
+        public Builder setLabelVerticalOffset(int labelVerticalOffset) {
+            this.labelVerticalOffset = labelVerticalOffset;
+            return this;
+        }
+
+        public Builder setLabelHorizontalOffset(int labelHorizontalOffset) {
+            this.labelHorizontalOffset = labelHorizontalOffset;
+            return this;
+        }
+
+        /**
+         * 晨昏蒙影色带的宽度, 色带沿轨迹内侧由外向内依次为民用、航海、天文晨昏蒙影. 为0时不绘制(默认)
+         */
+        public Builder setTwilightBandWidth(float bandWidthInPx) {
+            if (bandWidthInPx < 0) {
+                throw new IllegalArgumentException("Invalid twilight band width: " + bandWidthInPx);
+            }
+            this.twilightBandWidth = bandWidthInPx;
+            return this;
+        }
+
+        /**
+         * 民用、航海、天文晨昏蒙影的颜色, 同时用于对应阶段天空渐变的地平线颜色
+         */
+        public Builder setTwilightColors(int civilColor, int nauticalColor, int astronomicalColor) {
+            this.civilTwilightColor = civilColor;
+            this.nauticalTwilightColor = nauticalColor;
+            this.astronomicalTwilightColor = astronomicalColor;
+            return this;
+        }
+
+        /**
+         * 轨迹内天空渐变在白昼及夜晚的颜色, 晨昏蒙影阶段在两者之间过渡. 均为透明时不绘制(默认)
+         */
+        public Builder setSkyColors(int dayColor, int nightColor) {
+            this.skyDayColor = dayColor;
+            this.skyNightColor = nightColor;
+            return this;
+        }
+
+        public SunriseSunsetStyle build() {
+            return new SunriseSunsetStyle(this);
+        }
+    }
+}
@@ -0,0 +1,688 @@
+package com.github.tianma8023.ssv;
+
+import android.animation.TimeInterpolator;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.SurfaceTexture;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Message;
+import android.os.Process;
+import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.Surface;
+import android.view.TextureView;
+import android.view.View;
+import android.view.animation.LinearInterpolator;
+
+import com.github.tianma8023.formatter.SunriseSunsetLabelFormatter;
+import com.github.tianma8023.model.TimeOfDay;
+import com.github.tianma8023.solar.SolarDay;
+
+/**
+ * 在独立渲染线程中绘制的日出日落 View, 适用于全屏常亮显示等主线程负载敏感的场景.
+ * <p>
+ * 与 {@link SunriseSunsetView} 使用同一个 {@link SunriseSunsetRenderer} 绘制. 比率动画、实时模式的计算及绘制
+ * 都在渲染线程中按渲染线程自己的 {@link Choreographer} 节奏进行, 不会阻塞主线程.
+ * 渲染线程随 SurfaceTexture 创建和销毁, View 不可见时停止绘制. 未完成的动画在渲染线程重新创建后继续播放.
+ * <p>
+ * public 方法只能在主线程调用. 设置的 {@link SunriseSunsetLabelFormatter}、{@link TimeInterpolator}
+ * 及 {@link SunClock} 会在渲染线程中使用, 需要是线程安全的.
+ */
+public class SunriseSunsetTextureView extends TextureView implements TextureView.SurfaceTextureListener {
+
+    private static final long DEFAULT_ANIMATE_DURATION_MS = 1500L;
+
+    // 主线程一侧的状态, 渲染线程重新创建时全部重新发送
+    private SunriseSunsetStyle mStyle = SunriseSunsetStyle.DEFAULT;
+    private TimeOfDay mSunriseTime;
+    private TimeOfDay mSunsetTime;
+    private SunriseSunsetLabelFormatter mLabelFormatter = new DefaultLabelFormatter();
+    private float mRatio;
+    private long mAnimateDuration = DEFAULT_ANIMATE_DURATION_MS;
+    private TimeInterpolator mAnimateInterpolator = new LinearInterpolator();
+    private SunClock mClock = SunClock.SYSTEM;
+    private boolean mLiveMode;
+    // 宽度是否由太阳半径决定(wrap_content)
+    private boolean mWrapContentWidth;
+    // 渲染线程不存在时(Surface 尚未创建或已销毁)未完成的动画, 渲染线程创建后从该进度继续播放
+    private AnimationProgress mPendingAnimation;
+
+    private RenderThread mRenderThread;
+
+    public SunriseSunsetTextureView(Context context) {
+        super(context);
+        init();
+    }
+
+    public SunriseSunsetTextureView(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public SunriseSunsetTextureView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        mStyle = SunriseSunsetStyle.fromAttributes(context, attrs, defStyleAttr, 0);
+        init();
+    }
+
+    private void init() {
+        setOpaque(false);
+        setSurfaceTextureListener(this);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int paddingRight = getPaddingRight();
+        int paddingLeft = getPaddingLeft();
+        int paddingTop = getPaddingTop();
+        int paddingBottom = getPaddingBottom();
+
+        int widthSpecMode = MeasureSpec.getMode(widthMeasureSpec);
+        int widthSpecSize = MeasureSpec.getSize(widthMeasureSpec);
+
+        // 处理wrap_content这种情况
+        mWrapContentWidth = widthSpecMode == MeasureSpec.AT_MOST;
+        if (mWrapContentWidth) {
+            widthSpecSize = paddingLeft + paddingRight + SunriseSunsetRenderer.minimumWidth(mStyle);
+        }
+        int expectedHeight = SunriseSunsetRenderer.measureHeight(mStyle, widthSpecSize,
+                paddingLeft, paddingTop, paddingRight, paddingBottom);
+        setMeasuredDimension(widthSpecSize, expectedHeight);
+    }
+
+    @Override
+    public void onSurfaceTextureAvailable(SurfaceTexture surface, int width, int height) {
+        mRenderThread = new RenderThread();
+        mRenderThread.start();
+        mRenderThread.prepareHandler();
+        send(RenderThread.MSG_STYLE, 0, mStyle);
+        send(RenderThread.MSG_LABEL_FORMATTER, 0, mLabelFormatter);
+        send(RenderThread.MSG_TIMES, 0, new TimeOfDay[]{mSunriseTime, mSunsetTime});
+        send(RenderThread.MSG_RATIO, 0, mRatio);
+        sendConfig();
+        if (mPendingAnimation != null) {
+            send(RenderThread.MSG_RESUME_ANIMATE, 0, mPendingAnimation);
+            mPendingAnimation = null;
+        }
+        sendVisibility();
+        send(RenderThread.MSG_SURFACE_AVAILABLE, 0, surface);
+        sendSize(width, height);
+    }
+
+    @Override
+    public void onSurfaceTextureSizeChanged(SurfaceTexture surface, int width, int height) {
+        sendSize(width, height);
+    }
+
+    @Override
+    public boolean onSurfaceTextureDestroyed(SurfaceTexture surface) {
+        if (mRenderThread == null) {
+            return true;
+        }
+        // 由渲染线程在停止绘制后释放 SurfaceTexture, 避免与正在进行的绘制竞争
+        RenderThread renderThread = mRenderThread;
+        mRenderThread = null;
+        renderThread.send(RenderThread.MSG_SURFACE_DESTROYED, 0, surface);
+        // 等待渲染线程处理完已发送的消息后再读取比率和未完成的动画, 下次创建渲染线程时恢复
+        renderThread.awaitQuit();
+        mRatio = renderThread.getFinalRatio();
+        mPendingAnimation = renderThread.getFinalAnimation();
+        return false;
+    }
+
+    @Override
+    public void onSurfaceTextureUpdated(SurfaceTexture surface) {
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        sendVisibility();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        sendVisibility();
+    }
+
+    private void sendVisibility() {
+        boolean visible = getWindowVisibility() == VISIBLE && isShown();
+        send(RenderThread.MSG_VISIBILITY, visible ? 1 : 0, null);
+    }
+
+    private void sendSize(int width, int height) {
+        send(RenderThread.MSG_SIZE, 0, new int[]{width, height,
+                getPaddingLeft(), getPaddingTop(), getPaddingRight(), getPaddingBottom()});
+    }
+
+    private void sendConfig() {
+        send(RenderThread.MSG_CONFIG, 0, new RenderConfig(mAnimateDuration, mAnimateInterpolator, mClock, mLiveMode));
+    }
+
+    private void send(int what, int arg1, Object obj) {
+        if (mRenderThread != null) {
+            mRenderThread.send(what, arg1, obj);
+        }
+    }
+
+    /**
+     * 设置样式, 样式不可变, 可以与其他View共享
+     */
+    public void setStyle(SunriseSunsetStyle style) {
+        if (mStyle.equals(style)) {
+            return;
+        }
+        boolean radiusChanged = Float.compare(mStyle.getSunRadius(), style.getSunRadius()) != 0;
+        mStyle = style;
+        if (radiusChanged && mWrapContentWidth) {
+            requestLayout();
+        }
+        send(RenderThread.MSG_STYLE, 0, style);
+    }
+
+    public SunriseSunsetStyle getStyle() {
+        return mStyle;
+    }
+
+    public void setSunriseTimeOfDay(TimeOfDay sunriseTime) {
+        mSunriseTime = sunriseTime;
+        send(RenderThread.MSG_TIMES, 0, new TimeOfDay[]{mSunriseTime, mSunsetTime});
+    }
+
+    public TimeOfDay getSunriseTimeOfDay() {
+        return mSunriseTime;
+    }
+
+    public void setSunsetTimeOfDay(TimeOfDay sunsetTime) {
+        mSunsetTime = sunsetTime;
+        send(RenderThread.MSG_TIMES, 0, new TimeOfDay[]{mSunriseTime, mSunsetTime});
+    }
+
+    public TimeOfDay getSunsetTimeOfDay() {
+        return mSunsetTime;
+    }
+
+    /**
+     * 使用 {@link com.github.tianma8023.solar.SolarCalculator} 的计算结果设置日出日落时间
+     */
+    public void setSolarDay(SolarDay solarDay) {
+        mSunriseTime = solarDay.getSunrise();
+        mSunsetTime = solarDay.getSunset();
+        send(RenderThread.MSG_TIMES, 0, new TimeOfDay[]{mSunriseTime, mSunsetTime});
+    }
+
+    /**
+     * 设置标签格式化器, 格式化在渲染线程中进行
+     */
+    public void setLabelFormatter(SunriseSunsetLabelFormatter labelFormatter) {
+        mLabelFormatter = labelFormatter;
+        send(RenderThread.MSG_LABEL_FORMATTER, 0, labelFormatter);
+    }
+
+    public SunriseSunsetLabelFormatter getLabelFormatter() {
+        return mLabelFormatter;
+    }
+
+    /**
+     * 直接设置比率, 取消正在进行的动画
+     */
+    public void setRatio(float ratio) {
+        mRatio = ratio;
+        mPendingAnimation = null;
+        send(RenderThread.MSG_RATIO, 0, ratio);
+    }
+
+    /**
+     * 渲染线程最近一次绘制的比率
+     */
+    public float getRatio() {
+        return mRenderThread != null ? mRenderThread.getRatio() : mRatio;
+    }
+
+    /**
+     * 应用状态, 不播放动画
+     *
+     * @see #bind(SunriseSunsetState, boolean)
+     */
+    public void bind(SunriseSunsetState state) {
+        bind(state, false);
+    }
+
+    /**
+     * 一次性应用日出日落时间、比率及样式, 渲染线程只会为此绘制一帧
+     *
+     * @param animate 是否从起点播放动画到 state 的比率
+     */
+    public void bind(SunriseSunsetState state, boolean animate) {
+        if (state.getStyle() != null) {
+            setStyle(state.getStyle());
+        }
+        mSunriseTime = state.getSunrise();
+        mSunsetTime = state.getSunset();
+        send(RenderThread.MSG_TIMES, 0, new TimeOfDay[]{mSunriseTime, mSunsetTime});
+        mRatio = state.getRatio();
+        mPendingAnimation = null;
+        if (!animate) {
+            send(RenderThread.MSG_RATIO, 0, mRatio);
+        } else if (mRenderThread != null) {
+            send(RenderThread.MSG_ANIMATE_FROM_START, 0, mRatio);
+        } else {
+            mPendingAnimation = new AnimationProgress(0f, mRatio, 0);
+            mRatio = 0f;
+        }
+    }
+
+    /**
+     * 开始日出日落动画, 动画在渲染线程中计算和绘制.
+     * 动画进行中再次调用时会从当前位置平滑地过渡到新的目标位置
+     */
+    public void startAnimate() {
+        if (mSunriseTime == null || mSunsetTime == null) {
+            throw new RuntimeException("You need to set both sunrise and sunset time before start animation");
+        }
+        if (mRenderThread != null) {
+            send(RenderThread.MSG_START_ANIMATE, 0, null);
+            return;
+        }
+        // 渲染线程创建后再播放, 与渲染线程中一样从未完成动画的当前位置过渡
+        float fromRatio = mPendingAnimation != null ? mRatio : 0f;
+        float toRatio = SunTiming.ratioAt(mSunriseTime, mSunsetTime, SunTiming.millisOfDay(mClock));
+        mPendingAnimation = new AnimationProgress(fromRatio, toRatio, 0);
+        mRatio = fromRatio;
+    }
+
+    /**
+     * 取消正在进行的动画, 太阳停留在当前位置
+     */
+    public void cancelAnimate() {
+        mPendingAnimation = null;
+        send(RenderThread.MSG_CANCEL_ANIMATE, 0, null);
+    }
+
+    // 渲染线程不存在时未完成的动画, 没有时为null
+    AnimationProgress getPendingAnimation() {
+        return mPendingAnimation;
+    }
+
+    /**
+     * 设置动画时长, 默认1500ms
+     */
+    public void setAnimateDuration(long durationMillis) {
+        mAnimateDuration = durationMillis;
+        sendConfig();
+    }
+
+    public long getAnimateDuration() {
+        return mAnimateDuration;
+    }
+
+    /**
+     * 设置动画插值器, 默认为 {@link LinearInterpolator}. 插值器在渲染线程中使用
+     */
+    public void setAnimateInterpolator(TimeInterpolator interpolator) {
+        mAnimateInterpolator = interpolator == null ? new LinearInterpolator() : interpolator;
+        sendConfig();
+    }
+
+    public TimeInterpolator getAnimateInterpolator() {
+        return mAnimateInterpolator;
+    }
+
+    /**
+     * 设置获取当前时间的时钟, 默认为 {@link SunClock#SYSTEM}. 时钟在渲染线程中读取
+     */
+    public void setClock(SunClock clock) {
+        mClock = clock == null ? SunClock.SYSTEM : clock;
+        sendConfig();
+    }
+
+    public SunClock getClock() {
+        return mClock;
+    }
+
+    /**
+     * 实时模式: 太阳位置随时钟持续更新, 更新间隔与 {@link SunriseSunsetView#setLiveMode(boolean)} 相同,
+     * 计算与绘制都在渲染线程中进行
+     */
+    public void setLiveMode(boolean liveMode) {
+        if (mLiveMode == liveMode) {
+            return;
+        }
+        mLiveMode = liveMode;
+        sendConfig();
+    }
+
+    public boolean isLiveMode() {
+        return mLiveMode;
+    }
+
+    // 渲染线程中使用的配置, 不可变
+    private static final class RenderConfig {
+        final long animateDuration;
+        final TimeInterpolator animateInterpolator;
+        final SunClock clock;
+        final boolean liveMode;
+
+        RenderConfig(long animateDuration, TimeInterpolator animateInterpolator, SunClock clock, boolean liveMode) {
+            this.animateDuration = animateDuration;
+            this.animateInterpolator = animateInterpolator;
+            this.clock = clock;
+            this.liveMode = liveMode;
+        }
+    }
+
+    // 动画的起止比率及已播放的时长, 不可变
+    static final class AnimationProgress {
+        final float fromRatio;
+        final float toRatio;
+        final long elapsedNanos;
+
+        AnimationProgress(float fromRatio, float toRatio, long elapsedNanos) {
+            this.fromRatio = fromRatio;
+            this.toRatio = toRatio;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+
+    /**
+     * 渲染线程, 持有 Surface 及只在本线程中使用的 SunriseSunsetRenderer
+     */
+    private static final class RenderThread extends HandlerThread implements Handler.Callback, Choreographer.FrameCallback {
+
+        static final int MSG_SURFACE_AVAILABLE = 1;
+        static final int MSG_SIZE = 2;
+        static final int MSG_SURFACE_DESTROYED = 3;
+        static final int MSG_VISIBILITY = 4;
+        static final int MSG_STYLE = 5;
+        static final int MSG_TIMES = 6;
+        static final int MSG_LABEL_FORMATTER = 7;
+        static final int MSG_RATIO = 8;
+        static final int MSG_START_ANIMATE = 9;
+        static final int MSG_ANIMATE_FROM_START = 10;
+        static final int MSG_CANCEL_ANIMATE = 11;
+        static final int MSG_CONFIG = 12;
+        static final int MSG_LIVE_TICK = 13;
+        static final int MSG_RESUME_ANIMATE = 14;
+
+        private final SunriseSunsetRenderer mRenderer = new SunriseSunsetRenderer();
+        private Handler mHandler;
+        private Choreographer mChoreographer;
+        private Surface mSurface;
+        private SurfaceTexture mSurfaceTexture;
+        // width, height, paddingLeft, paddingTop, paddingRight, paddingBottom
+        private int[] mSize;
+        private boolean mVisible;
+        private boolean mFramePending;
+        private RenderConfig mConfig;
+
+        private boolean mAnimating;
+        private float mAnimFrom;
+        private float mAnimTo;
+        // 已播放的时长(不含不可见的时间), 及上一帧的时间, -1表示尚未收到帧
+        private long mAnimElapsedNanos;
+        private long mAnimLastFrameNanos = -1;
+
+        // 最近一次绘制的比率, 供主线程读取
+        private volatile float mRenderedRatio;
+
+        RenderThread() {
+            super("SunriseSunsetRender", Process.THREAD_PRIORITY_DISPLAY);
+        }
+
+        // 在主线程中调用, getLooper() 会等待渲染线程的 Looper 准备好
+        void prepareHandler() {
+            mHandler = new Handler(getLooper(), this);
+        }
+
+        @Override
+        protected void onLooperPrepared() {
+            // 渲染线程自己的 Choreographer, 独立于主线程的帧节奏
+            mChoreographer = Choreographer.getInstance();
+        }
+
+        void send(int what, int arg1, Object obj) {
+            mHandler.obtainMessage(what, arg1, 0, obj).sendToTarget();
+        }
+
+        float getRatio() {
+            return mRenderedRatio;
+        }
+
+        // 在主线程中等待渲染线程退出, 之后才能读取渲染线程的状态
+        void awaitQuit() {
+            boolean interrupted = false;
+            while (isAlive()) {
+                try {
+                    join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // 渲染线程退出后调用, 最终的比率(可能尚未绘制)
+        float getFinalRatio() {
+            return mRenderer.getRatio();
+        }
+
+        // 渲染线程退出后调用, 未完成的动画, 没有时为null
+        AnimationProgress getFinalAnimation() {
+            return mAnimating ? new AnimationProgress(mAnimFrom, mAnimTo, mAnimElapsedNanos) : null;
+        }
+
+        @Override
+        public boolean handleMessage(Message msg) {
+            switch (msg.what) {
+                case MSG_SURFACE_AVAILABLE:
+                    mSurfaceTexture = (SurfaceTexture) msg.obj;
+                    mSurface = new Surface(mSurfaceTexture);
+                    requestFrame();
+                    scheduleLiveTick();
+                    break;
+                case MSG_SIZE:
+                    mSize = (int[]) msg.obj;
+                    relayout();
+                    requestFrame();
+                    scheduleLiveTick();
+                    break;
+                case MSG_SURFACE_DESTROYED:
+                    releaseSurface();
+                    quit();
+                    break;
+                case MSG_VISIBILITY:
+                    setVisible(msg.arg1 != 0);
+                    break;
+                case MSG_STYLE:
+                    if (mRenderer.applyStyle((SunriseSunsetStyle) msg.obj) == SunriseSunsetRenderer.STYLE_CHANGE_LAYOUT) {
+                        relayout();
+                    }
+                    requestFrame();
+                    break;
+                case MSG_TIMES:
+                    TimeOfDay[] times = (TimeOfDay[]) msg.obj;
+                    if (mRenderer.setTimes(times[0], times[1])) {
+                        requestFrame();
+                        scheduleLiveTick();
+                    }
+                    break;
+                case MSG_LABEL_FORMATTER:
+                    mRenderer.setLabelFormatter((SunriseSunsetLabelFormatter) msg.obj);
+                    requestFrame();
+                    break;
+                case MSG_RATIO:
+                    mAnimating = false;
+                    setRatio((Float) msg.obj);
+                    requestFrame();
+                    break;
+                case MSG_START_ANIMATE:
+                    if (mRenderer.hasLabels()) {
+                        animateTo(SunTiming.ratioAt(mRenderer.getSunriseTime(), mRenderer.getSunsetTime(),
+                                SunTiming.millisOfDay(mConfig.clock)), false);
+                    }
+                    break;
+                case MSG_ANIMATE_FROM_START:
+                    animateTo((Float) msg.obj, true);
+                    break;
+                case MSG_RESUME_ANIMATE:
+                    AnimationProgress progress = (AnimationProgress) msg.obj;
+                    runAnimation(progress.fromRatio, progress.toRatio, progress.elapsedNanos);
+                    break;
+                case MSG_CANCEL_ANIMATE:
+                    mAnimating = false;
+                    break;
+                case MSG_CONFIG:
+                    boolean wasLive = mConfig != null && mConfig.liveMode;
+                    mConfig = (RenderConfig) msg.obj;
+                    if (mConfig.liveMode != wasLive) {
+                        scheduleLiveTick();
+                    }
+                    break;
+                case MSG_LIVE_TICK:
+                    onLiveTick();
+                    break;
+                default:
+                    return false;
+            }
+            return true;
+        }
+
+        // 按当前尺寸重新计算几何信息, 尺寸未知时等待 MSG_SIZE
+        private void relayout() {
+            if (mSize != null) {
+                mRenderer.layout(mSize[0], mSize[2], mSize[3], mSize[4], mSize[5]);
+            }
+        }
+
+        private void setRatio(float ratio) {
+            mRenderer.setRatio(ratio);
+        }
+
+        private void setVisible(boolean visible) {
+            if (mVisible == visible) {
+                return;
+            }
+            mVisible = visible;
+            if (visible) {
+                requestFrame();
+            } else {
+                if (mFramePending) {
+                    mChoreographer.removeFrameCallback(this);
+                    mFramePending = false;
+                }
+                // 不可见的时间不计入动画时长
+                mAnimLastFrameNanos = -1;
+            }
+            scheduleLiveTick();
+        }
+
+        // 动画进行中时从当前位置过渡, 否则从起点开始
+        private void animateTo(float target, boolean fromStart) {
+            float from = mAnimating && !fromStart ? mRenderer.getRatio() : 0f;
+            setRatio(from);
+            runAnimation(from, target, 0);
+        }
+
+        // 从已播放 elapsedNanos 处继续播放 from 到 to 的动画
+        private void runAnimation(float from, float to, long elapsedNanos) {
+            mAnimFrom = from;
+            mAnimTo = to;
+            mAnimElapsedNanos = elapsedNanos;
+            mAnimLastFrameNanos = -1;
+            mAnimating = true;
+            requestFrame();
+        }
+
+        private void requestFrame() {
+            if (!mFramePending && mSurface != null && mVisible) {
+                mFramePending = true;
+                mChoreographer.postFrameCallback(this);
+            }
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mFramePending = false;
+            if (mAnimating) {
+                advanceAnimation(frameTimeNanos);
+            }
+            draw();
+            if (mAnimating) {
+                requestFrame();
+            }
+        }
+
+        private void advanceAnimation(long frameTimeNanos) {
+            if (mAnimLastFrameNanos >= 0) {
+                mAnimElapsedNanos += frameTimeNanos - mAnimLastFrameNanos;
+            }
+            mAnimLastFrameNanos = frameTimeNanos;
+            long durationNanos = mConfig.animateDuration * 1000000L;
+            float fraction = durationNanos <= 0 ? 1f : Math.min(1f, (float) mAnimElapsedNanos / durationNanos);
+            float interpolated = mConfig.animateInterpolator.getInterpolation(fraction);
+            setRatio(mAnimFrom + (mAnimTo - mAnimFrom) * interpolated);
+            if (fraction >= 1f) {
+                mAnimating = false;
+            }
+        }
+
+        private void draw() {
+            if (mSurface == null || !mVisible || mSize == null || mSize[0] <= 0) {
+                return;
+            }
+            Canvas canvas = Build.VERSION.SDK_INT >= Build.VERSION_CODES.M
+                    ? mSurface.lockHardwareCanvas() : mSurface.lockCanvas(null);
+            try {
+                canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+                mRenderer.draw(canvas);
+            } finally {
+                mSurface.unlockCanvasAndPost(canvas);
+            }
+            mRenderedRatio = mRenderer.getRatio();
+        }
+
+        // 实时模式的一次更新, 动画进行中时只安排下一次更新
+        private void onLiveTick() {
+            if (!mConfig.liveMode || !mRenderer.hasLabels()) {
+                return;
+            }
+            long millisOfDay = SunTiming.millisOfDay(mConfig.clock);
+            if (!mAnimating) {
+                setRatio(SunTiming.ratioAt(mRenderer.getSunriseTime(), mRenderer.getSunsetTime(), millisOfDay));
+                requestFrame();
+            }
+            mHandler.sendEmptyMessageDelayed(MSG_LIVE_TICK, SunTiming.liveTickDelay(
+                    mRenderer.getSunriseTime(), mRenderer.getSunsetTime(), millisOfDay, mRenderer.getTrackRadius()));
+        }
+
+        // 立即更新一次并重新安排实时模式, 不可见或没有 Surface 时停止
+        private void scheduleLiveTick() {
+            mHandler.removeMessages(MSG_LIVE_TICK);
+            if (mConfig != null && mConfig.liveMode && mSurface != null && mVisible) {
+                mHandler.sendEmptyMessage(MSG_LIVE_TICK);
+            }
+        }
+
+        private void releaseSurface() {
+            mHandler.removeMessages(MSG_LIVE_TICK);
+            if (mFramePending) {
+                mChoreographer.removeFrameCallback(this);
+                mFramePending = false;
+            }
+            if (mSurface != null) {
+                mSurface.release();
+                mSurface = null;
+            }
+            if (mSurfaceTexture != null) {
+                mSurfaceTexture.release();
+                mSurfaceTexture = null;
+            }
+        }
+    }
+}
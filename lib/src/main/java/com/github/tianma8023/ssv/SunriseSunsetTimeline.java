@@ -0,0 +1,146 @@
+package com.github.tianma8023.ssv;
+
+import com.github.tianma8023.geometry.SunArcGeometry;
+import com.github.tianma8023.model.TimeOfDay;
+import com.github.tianma8023.solar.SolarCalculator;
+
+/**
+ * 按天排列的日出日落时间表, 用于 {@link SunriseSunsetView#setTimeline(SunriseSunsetTimeline)} 时间轴模式.
+ * <p>
+ * 以 short 数组存储每天日出日落的当天分钟数, 366天只占约1.5KB. 可直接使用
+ * {@link com.github.tianma8023.solar.SolarTables#fill} 生成的表, 其中的
+ * {@link SolarCalculator#POLAR_DAY} / {@link SolarCalculator#POLAR_NIGHT} 会按
+ * {@link com.github.tianma8023.solar.SolarDay} 的约定转换. 不可变, 可以在多个View之间共享.
+ */
+public final class SunriseSunsetTimeline {
+
+    private final short[] sunrise;
+    private final short[] sunset;
+
+    /**
+     * @param sunriseMinutes 每天日出的当天分钟数
+     * @param sunsetMinutes  每天日落的当天分钟数, 长度与 sunriseMinutes 相同
+     */
+    public SunriseSunsetTimeline(short[] sunriseMinutes, short[] sunsetMinutes) {
+        this(sunriseMinutes, sunsetMinutes, 0, sunriseMinutes.length);
+    }
+
+    /**
+     * 使用表中的一段, 如 SolarTables 生成的多地点表中某个地点的数据
+     *
+     * @param offset   起始下标
+     * @param dayCount 天数
+     */
+    public SunriseSunsetTimeline(short[] sunriseMinutes, short[] sunsetMinutes, int offset, int dayCount) {
+        if (dayCount <= 0) {
+            throw new IllegalArgumentException("dayCount <= 0: " + dayCount);
+        }
+        if (offset < 0 || offset + dayCount > sunriseMinutes.length || offset + dayCount > sunsetMinutes.length) {
+            throw new IllegalArgumentException("table is too small");
+        }
+        sunrise = new short[dayCount];
+        sunset = new short[dayCount];
+        for (int i = 0; i < dayCount; i++) {
+            int rise = sunriseMinutes[offset + i];
+            int set = sunsetMinutes[offset + i];
+            if (rise == SolarCalculator.POLAR_DAY) {
+                rise = 0;
+                set = TimeOfDay.MINUTES_PER_DAY - 1;
+            } else if (rise == SolarCalculator.POLAR_NIGHT) {
+                rise = 0;
+                set = 0;
+            }
+            checkMinute(rise, offset + i);
+            checkMinute(set, offset + i);
+            sunrise[i] = (short) rise;
+            sunset[i] = (short) set;
+        }
+    }
+
+    private static void checkMinute(int minute, int index) {
+        if (minute < 0 || minute >= TimeOfDay.MINUTES_PER_DAY) {
+            throw new IllegalArgumentException("minute out of range [0, "
+                    + TimeOfDay.MINUTES_PER_DAY + ") at " + index + ": " + minute);
+        }
+    }
+
+    public int getDayCount() {
+        return sunrise.length;
+    }
+
+    public int getSunriseMinute(int day) {
+        return sunrise[day];
+    }
+
+    public int getSunsetMinute(int day) {
+        return sunset[day];
+    }
+
+    /**
+     * 将 dayIndex 限制在 [0, dayCount - 1] 内
+     */
+    public float clampDayIndex(float dayIndex) {
+        int last = sunrise.length - 1;
+        return dayIndex <= 0 ? 0 : (dayIndex >= last ? last : dayIndex);
+    }
+
+    /**
+     * 相邻两天之间线性插值的日出分钟数
+     */
+    public float sunriseMinuteAt(float dayIndex) {
+        return interpolate(sunrise, clampDayIndex(dayIndex));
+    }
+
+    /**
+     * 相邻两天之间线性插值的日落分钟数. 日落在次日凌晨时按日落加一天插值, 结果仍在 [0, 1440) 内
+     */
+    public float sunsetMinuteAt(float dayIndex) {
+        float set = unwrappedSunsetMinuteAt(dayIndex);
+        return set >= TimeOfDay.MINUTES_PER_DAY ? set - TimeOfDay.MINUTES_PER_DAY : set;
+    }
+
+    // 日落早于日出时日落在次日凌晨, 加一天后再插值, 避免跨越0点时插值到白天
+    private float unwrappedSunsetMinuteAt(float dayIndex) {
+        dayIndex = clampDayIndex(dayIndex);
+        int day = (int) dayIndex;
+        float fraction = dayIndex - day;
+        if (fraction == 0) {
+            return unwrappedSunsetMinute(day);
+        }
+        int set = unwrappedSunsetMinute(day);
+        return set + (unwrappedSunsetMinute(day + 1) - set) * fraction;
+    }
+
+    private int unwrappedSunsetMinute(int day) {
+        int set = sunset[day];
+        return set < sunrise[day] ? set + TimeOfDay.MINUTES_PER_DAY : set;
+    }
+
+    private static float interpolate(short[] table, float dayIndex) {
+        int day = (int) dayIndex;
+        float fraction = dayIndex - day;
+        if (fraction == 0) {
+            return table[day];
+        }
+        return table[day] + (table[day + 1] - table[day]) * fraction;
+    }
+
+    /**
+     * dayIndex 对应日期中, 当天毫秒数 millisOfDay 时的日出日落比率, 范围[0, 1]
+     */
+    public float ratioAt(float dayIndex, long millisOfDay) {
+        float rise = sunriseMinuteAt(dayIndex);
+        float set = unwrappedSunsetMinuteAt(dayIndex);
+        // 极夜时日出与日落相同, 太阳停留在起点
+        if (set <= rise) {
+            return 0;
+        }
+        float minute = millisOfDay / 60000f;
+        // 0点到次日凌晨的日落之间仍属于前一天的白昼
+        if (minute < set - TimeOfDay.MINUTES_PER_DAY) {
+            minute += TimeOfDay.MINUTES_PER_DAY;
+        }
+        float ratio = (minute - rise) / (set - rise);
+        return SunArcGeometry.clampRatio(ratio);
+    }
+}
@@ -1,95 +1,145 @@
 package com.github.tianma8023.ssv;
 
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
 import android.animation.ObjectAnimator;
+import android.animation.TimeInterpolator;
+import android.animation.ValueAnimator;
 import android.content.Context;
-import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.DashPathEffect;
 import android.graphics.Paint;
-import android.graphics.Path;
 import android.graphics.PathEffect;
-import android.graphics.RectF;
-import android.text.TextPaint;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.util.AttributeSet;
+import android.util.Property;
 import android.view.View;
 import android.view.animation.LinearInterpolator;
 
-import com.github.tianma8023.formatter.SimpleSunriseSunsetLabelFormatter;
 import com.github.tianma8023.formatter.SunriseSunsetLabelFormatter;
+import com.github.tianma8023.geometry.SunArcGeometry;
 import com.github.tianma8023.model.Time;
+import com.github.tianma8023.model.TimeOfDay;
+import com.github.tianma8023.solar.SolarCalculator;
+import com.github.tianma8023.solar.SolarDay;
+import com.github.tianma8023.solar.SolarEventIndex;
+import com.github.tianma8023.solar.TwilightDay;
+
+import java.util.TimeZone;
 
-import java.util.Calendar;
-import java.util.Locale;
 
 /**
  * A view which can show sunrise and sunset animation
  */
 public class SunriseSunsetView extends View {
 
-    private static final int DEFAULT_TRACK_COLOR = Color.WHITE;
-    private static final int DEFAULT_TRACK_WIDTH_PX = 4;
-
-    private static final int DEFAULT_SUN_COLOR = Color.YELLOW;
-    private static final int DEFAULT_SUN_RADIUS_PX = 20;
-    private static final int DEFAULT_SUN_STROKE_WIDTH_PX = 4;
-
-    private static final int DEFAULT_SHADOW_COLOR = Color.parseColor("#32FFFFFF");
-
-    private static final int DEFAULT_LABEL_TEXT_COLOR = Color.WHITE;
-    private static final int DEFAULT_LABEL_TEXT_SIZE = 40;
-    private static final int DEFAULT_LABEL_VERTICAL_OFFSET_PX = 5;
-    private static final int DEFAULT_LABEL_HORIZONTAL_OFFSET_PX = 20;
-
     /**
-     * 当前日出日落比率, mRatio < 0: 未日出, mRatio > 1 已日落
+     * 日出日落比率属性, 可用于 ObjectAnimator 等, 避免通过反射查找 setRatio
      */
-    private float mRatio;
-
-    private Paint mTrackPaint;  // 绘制半圆轨迹的Paint
-    private int mTrackColor = DEFAULT_TRACK_COLOR; // 轨迹的颜色
-    private int mTrackWidth = DEFAULT_TRACK_WIDTH_PX;    // 轨迹的宽度
-    // 轨迹的PathEffect
-    private PathEffect mTrackPathEffect = new DashPathEffect(new float[]{15, 15}, 1);
-    // 轨迹圆的半径
-    private float mTrackRadius;
-
-    private Paint mShadowPaint; // 绘制日出日落阴影的Paint
-    private int mShadowColor = DEFAULT_SHADOW_COLOR; // 阴影颜色
-
-    private Paint mSunPaint;    // 绘制太阳的Paint
-    private int mSunColor = DEFAULT_SUN_COLOR;  // 太阳颜色
-    private float mSunRadius = DEFAULT_SUN_RADIUS_PX; // 太阳半径
-    private Paint.Style mSunPaintStyle = Paint.Style.FILL; // 太阳Paint样式,默认FILL
-
-    private TextPaint mLabelPaint;   // 绘制日出日落时间的Paint
-    private int mLabelTextSize = DEFAULT_LABEL_TEXT_SIZE; // 标签文字大小
-    private int mLabelTextColor = DEFAULT_LABEL_TEXT_COLOR; // 标签颜色
-    private int mLabelVerticalOffset = DEFAULT_LABEL_VERTICAL_OFFSET_PX; // 竖直方向间距
-    private int mLabelHorizontalOffset = DEFAULT_LABEL_HORIZONTAL_OFFSET_PX; // 水平方向间距
-
-    private static final int MINIMAL_TRACK_RADIUS_PX = 300; // 半圆轨迹最小半径
+    public static final Property<SunriseSunsetView, Float> RATIO = new Property<SunriseSunsetView, Float>(Float.class, "ratio") {
+        @Override
+        public Float get(SunriseSunsetView view) {
+            return view.getRatio();
+        }
 
-    /**
-     * 日出时间
-     */
-    private Time mSunriseTime;
-    /**
-     * 日落时间
-     */
-    private Time mSunsetTime;
+        @Override
+        public void set(SunriseSunsetView view, Float value) {
+            view.setRatio(value);
+        }
+    };
 
     /**
-     * 绘图区域
+     * 负责实际绘制, 持有样式、日出日落时间、比率及几何信息
      */
-    private RectF mBoardRectF = new RectF();
-
-    // Label Formatter - Default is a Simple label formatter.
-    private SunriseSunsetLabelFormatter mLabelFormatter = new SimpleSunriseSunsetLabelFormatter();
+    private final SunriseSunsetRenderer mRenderer = new SunriseSunsetRenderer();
+    // 宽度是否由太阳半径决定(wrap_content)
+    private boolean mWrapContentWidth;
+
+    private static final long DEFAULT_ANIMATE_DURATION_MS = 1500L;
+
+    private static final float DEFAULT_RATIO_INVALIDATE_THRESHOLD_PX = 0.5f; // setRatio默认的重绘阈值
+    private static final int DIRTY_RECT_OUTSET_PX = 2; // 脏区域外扩的像素, 覆盖抗锯齿边缘
+
+    // 静态图层缓存: 轨迹和标签只在尺寸/样式/时间变化时重绘到离屏Bitmap
+    private boolean mStaticLayerCacheEnabled;
+    private Bitmap mStaticLayerBitmap;
+    private Canvas mStaticLayerCanvas;
+    private boolean mStaticLayerValid;
+    private int mStaticLayerVersion;
+    // setRatio 的重绘阈值: 太阳中心在屏幕上的位移小于该值时不重绘
+    private float mRatioInvalidateThreshold = DEFAULT_RATIO_INVALIDATE_THRESHOLD_PX;
+    // 最近一次请求重绘时的比率
+    private float mInvalidatedRatio;
+    private final float[] mDirtyBounds = new float[4];
+    // 被抑制的重绘次数及局部重绘次数
+    private int mSuppressedInvalidateCount;
+    private int mPartialInvalidateCount;
+    // 日出日落动画, 每个View复用同一个
+    private ObjectAnimator mRatioAnimator;
+    private long mAnimateDuration = DEFAULT_ANIMATE_DURATION_MS;
+    private TimeInterpolator mAnimateInterpolator = new LinearInterpolator();
+    // 动画因不可见或detach而暂停时的进度
+    private boolean mRatioAnimatorPaused;
+    private long mPausedPlayTime;
+    // 当前动画的起止比率, 两种动画方式共用, 用于保存和恢复动画进度
+    private float mAnimateFromRatio;
+    private float mAnimateToRatio;
+
+    // 时间轴模式下计算太阳位置所用的当天毫秒数
+    private long mTimelineMillisOfDay;
+
+    // 时钟及实时模式
+    private SunClock mClock = SunClock.SYSTEM;
+    private boolean mLiveMode;
+    private final Runnable mLiveTick = new Runnable() {
+        @Override
+        public void run() {
+            onLiveTick();
+        }
+    };
+    // 日出日落事件索引及地点, 设置后按时钟逐日更新日出日落时间
+    private SolarEventIndex mSolarEvents;
+    private int mSolarEventLocation;
+    private final Runnable mSolarTransition = new Runnable() {
+        @Override
+        public void run() {
+            onSolarTransition();
+        }
+    };
+
+    // 共享调度器模式: 动画与实时更新由 SunriseSunsetScheduler 统一驱动
+    private boolean mUseSharedScheduler;
+    private boolean mSharedRegistered;
+    private boolean mSharedAnimating;
+    // 已播放的时长(不含暂停时间), 及上一帧的时间, -1表示尚未收到帧
+    private long mSharedAnimElapsedNanos;
+    private long mSharedAnimLastFrameNanos = -1;
+
+    // 绘制统计, 仅在设置了监听时不为null
+    private DrawMetricsListener mDrawMetricsListener;
+    private DrawMetrics mDrawMetrics;
+    // 动画每帧回调, 用于统计动画帧率
+    private final ValueAnimator.AnimatorUpdateListener mAnimatorMetricsListener = new ValueAnimator.AnimatorUpdateListener() {
+        @Override
+        public void onAnimationUpdate(ValueAnimator animation) {
+            if (mDrawMetrics != null) {
+                mDrawMetrics.recordAnimatorFrame(System.nanoTime());
+            }
+        }
+    };
+    private final AnimatorListenerAdapter mAnimatorMetricsEndListener = new AnimatorListenerAdapter() {
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            if (mDrawMetrics != null) {
+                mDrawMetrics.endAnimatorRun();
+            }
+        }
+    };
 
     public SunriseSunsetView(Context context) {
         super(context);
-        init();
     }
 
     public SunriseSunsetView(Context context, AttributeSet attrs) {
@@ -98,23 +148,7 @@ public class SunriseSunsetView extends View {
 
     public SunriseSunsetView(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
-        TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.SunriseSunsetView, defStyleAttr, 0);
-        if (a != null) {
-            mTrackColor = a.getColor(R.styleable.SunriseSunsetView_ssv_track_color, DEFAULT_TRACK_COLOR);
-            mTrackWidth = a.getDimensionPixelSize(R.styleable.SunriseSunsetView_ssv_track_width, DEFAULT_TRACK_WIDTH_PX);
-
-            mShadowColor = a.getColor(R.styleable.SunriseSunsetView_ssv_shadow_color, DEFAULT_SHADOW_COLOR);
-
-            mSunColor = a.getColor(R.styleable.SunriseSunsetView_ssv_sun_color, DEFAULT_SUN_COLOR);
-            mSunRadius = a.getDimensionPixelSize(R.styleable.SunriseSunsetView_ssv_sun_radius, DEFAULT_SUN_RADIUS_PX);
-
-            mLabelTextColor = a.getColor(R.styleable.SunriseSunsetView_ssv_label_text_color, DEFAULT_LABEL_TEXT_COLOR);
-            mLabelTextSize = a.getDimensionPixelSize(R.styleable.SunriseSunsetView_ssv_label_text_size, DEFAULT_LABEL_TEXT_SIZE);
-            mLabelVerticalOffset = a.getDimensionPixelOffset(R.styleable.SunriseSunsetView_ssv_label_vertical_offset, DEFAULT_LABEL_VERTICAL_OFFSET_PX);
-            mLabelHorizontalOffset = a.getDimensionPixelOffset(R.styleable.SunriseSunsetView_ssv_label_horizontal_offset, DEFAULT_LABEL_HORIZONTAL_OFFSET_PX);
-            a.recycle();
-        }
-        init();
+        mRenderer.setStyle(SunriseSunsetStyle.fromAttributes(context, attrs, defStyleAttr, 0));
     }
 
     @Override
@@ -128,229 +162,1110 @@ public class SunriseSunsetView extends View {
         int widthSpecSize = MeasureSpec.getSize(widthMeasureSpec);
 
         // 处理wrap_content这种情况
-        if (widthSpecMode == MeasureSpec.AT_MOST) {
-            widthSpecSize = paddingLeft + paddingRight + MINIMAL_TRACK_RADIUS_PX * 2 + (int) mSunRadius * 2;
+        mWrapContentWidth = widthSpecMode == MeasureSpec.AT_MOST;
+        if (mWrapContentWidth) {
+            widthSpecSize = paddingLeft + paddingRight + mRenderer.getMinimumWidth();
         }
 
-        mTrackRadius = 1.0f * (widthSpecSize - paddingLeft - paddingRight - 2 * mSunRadius) / 2;
-        int expectedHeight = (int) (mTrackRadius + mSunRadius + paddingBottom + paddingTop);
-        mBoardRectF.set(paddingLeft + mSunRadius, paddingTop + mSunRadius, widthSpecSize - paddingRight - mSunRadius, expectedHeight - paddingBottom);
+        int expectedHeight = mRenderer.layout(widthSpecSize, paddingLeft, paddingTop, paddingRight, paddingBottom);
         setMeasuredDimension(widthSpecSize, expectedHeight);
     }
 
-    private void init() {
-        // 初始化半圆轨迹的画笔
-        mTrackPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mTrackPaint.setStyle(Paint.Style.STROKE); // 画笔的样式为线条
-        prepareTrackPaint();
-
-        // 初始化日出日落阴影的画笔
-        mShadowPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mShadowPaint.setStyle(Paint.Style.FILL_AND_STROKE);
-        prepareShadowPaint();
-
-        // 初始化太阳的Paint
-        mSunPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mSunPaint.setStrokeWidth(DEFAULT_SUN_STROKE_WIDTH_PX);
-        prepareSunPaint();
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
 
-        mLabelPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
-        prepareLabelPaint();
+        long frameStart = beginPhase();
+        mRenderer.updateSunPosition();
+        drawSky(canvas);
+        if (!mStaticLayerCacheEnabled || !drawStaticLayer(canvas)) {
+            drawSunTrack(canvas);
+            drawShadow(canvas);
+            drawSun(canvas);
+            drawSunriseSunsetLabel(canvas);
+        }
+        if (mDrawMetrics != null) {
+            mDrawMetrics.recordFrame(System.nanoTime() - frameStart);
+            mDrawMetricsListener.onFrameDrawn(this, mDrawMetrics);
+        }
     }
 
-    // 半圆轨迹的画笔
-    private void prepareTrackPaint() {
-        mTrackPaint.setColor(mTrackColor);
-        mTrackPaint.setStrokeWidth(mTrackWidth);
-        mTrackPaint.setPathEffect(mTrackPathEffect);
+    // 未设置统计监听时不读取时钟
+    private long beginPhase() {
+        return mDrawMetrics != null ? System.nanoTime() : 0;
     }
 
-    // 阴影的画笔
-    private void prepareShadowPaint() {
-        mShadowPaint.setColor(mShadowColor);
+    private void endPhase(int phase, long start) {
+        if (mDrawMetrics != null) {
+            mDrawMetrics.recordPhase(phase, System.nanoTime() - start);
+        }
     }
 
-    // 太阳的画笔
-    private void prepareSunPaint() {
-        mSunPaint.setColor(mSunColor);
-        mSunPaint.setStrokeWidth(DEFAULT_SUN_STROKE_WIDTH_PX);
-        mSunPaint.setStyle(mSunPaintStyle);
-    }
+    // 使用静态图层缓存绘制, 只有阴影和太阳是实时绘制的. 无法创建缓存时返回false
+    private boolean drawStaticLayer(Canvas canvas) {
+        int width = getWidth();
+        int height = getHeight();
+        if (width <= 0 || height <= 0) {
+            return false;
+        }
+        if (mStaticLayerBitmap == null
+                || mStaticLayerBitmap.getWidth() != width
+                || mStaticLayerBitmap.getHeight() != height) {
+            releaseStaticLayer();
+            mStaticLayerBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            mStaticLayerCanvas = new Canvas(mStaticLayerBitmap);
+        }
+        int version = mRenderer.getStaticContentVersion();
+        if (!mStaticLayerValid || mStaticLayerVersion != version) {
+            mStaticLayerBitmap.eraseColor(Color.TRANSPARENT);
+            drawSunTrack(mStaticLayerCanvas);
+            drawSunriseSunsetLabel(mStaticLayerCanvas);
+            mStaticLayerValid = true;
+            mStaticLayerVersion = version;
+        }
 
-    // 标签的画笔
-    private void prepareLabelPaint() {
-        mLabelPaint.setColor(mLabelTextColor);
-        mLabelPaint.setTextSize(mLabelTextSize);
+        // 阴影位于轨迹和标签之下, 太阳位于最上层
+        drawShadow(canvas);
+        long start = beginPhase();
+        canvas.drawBitmap(mStaticLayerBitmap, 0, 0, null);
+        endPhase(DrawMetrics.PHASE_STATIC_LAYER, start);
+        drawSun(canvas);
+        return true;
     }
 
+    private void releaseStaticLayer() {
+        if (mStaticLayerBitmap != null) {
+            mStaticLayerBitmap.recycle();
+            mStaticLayerBitmap = null;
+            mStaticLayerCanvas = null;
+        }
+        mStaticLayerValid = false;
+    }
 
     @Override
-    protected void onDraw(Canvas canvas) {
-        super.onDraw(canvas);
-
-        drawSunTrack(canvas);
-        drawShadow(canvas);
-        drawSun(canvas);
-        drawSunriseSunsetLabel(canvas);
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        pauseRatioAnimator();
+        unregisterShared();
+        removeCallbacks(mLiveTick);
+        removeCallbacks(mSolarTransition);
+        releaseStaticLayer();
     }
 
     // 绘制太阳轨道（半圆）
     private void drawSunTrack(Canvas canvas) {
-        prepareTrackPaint();
-        canvas.save();
-        RectF rectF = new RectF(mBoardRectF.left, mBoardRectF.top, mBoardRectF.right, mBoardRectF.bottom + mBoardRectF.height());
-        canvas.drawArc(rectF, 180, 180, false, mTrackPaint);
-        canvas.restore();
+        long start = beginPhase();
+        mRenderer.drawSunTrack(canvas);
+        endPhase(DrawMetrics.PHASE_TRACK, start);
+    }
+
+    // 绘制天空渐变及晨昏蒙影色带, 使用缓存的路径和 Shader. 只在实际绘制时记录耗时
+    private void drawSky(Canvas canvas) {
+        long start = beginPhase();
+        if (mRenderer.drawSky(canvas)) {
+            endPhase(DrawMetrics.PHASE_SKY, start);
+        }
     }
 
     // 绘制日出日落阴影部分
     private void drawShadow(Canvas canvas) {
-        prepareShadowPaint();
-
-        canvas.save();
-        Path path = new Path();
-        float endY = mBoardRectF.bottom;
-        RectF rectF = new RectF(mBoardRectF.left, mBoardRectF.top, mBoardRectF.right, mBoardRectF.bottom + mBoardRectF.height());
-        float curPointX = mBoardRectF.left + mTrackRadius - mTrackRadius * (float) Math.cos(Math.PI * mRatio);
-
-        path.moveTo(0, endY);
-        path.arcTo(rectF, 180, 180 * mRatio);
-        path.lineTo(curPointX, endY);
-        path.close();
-        canvas.drawPath(path, mShadowPaint);
-        canvas.restore();
+        long start = beginPhase();
+        mRenderer.drawShadow(canvas);
+        endPhase(DrawMetrics.PHASE_SHADOW, start);
     }
 
     // 绘制太阳
     private void drawSun(Canvas canvas) {
-        prepareSunPaint();
-        canvas.save();
-
-        float curPointX = mBoardRectF.left + mTrackRadius - mTrackRadius * (float) Math.cos(Math.PI * mRatio);
-        float curPointY = mBoardRectF.bottom - mTrackRadius * (float) Math.sin(Math.PI * mRatio);
-        canvas.drawCircle(curPointX, curPointY, mSunRadius, mSunPaint);
-
-        canvas.restore();
+        long start = beginPhase();
+        mRenderer.drawSun(canvas);
+        endPhase(DrawMetrics.PHASE_SUN, start);
     }
 
     // 绘制日出日落标签
     private void drawSunriseSunsetLabel(Canvas canvas) {
-        if (mSunriseTime == null || mSunsetTime == null) {
+        if (!mRenderer.hasLabels()) {
             return;
         }
-        prepareLabelPaint();
+        long start = beginPhase();
+        mRenderer.drawSunriseSunsetLabel(canvas);
+        endPhase(DrawMetrics.PHASE_LABEL, start);
+    }
 
-        canvas.save();
-        // 绘制日出时间
-        String sunriseStr = mLabelFormatter.formatSunriseLabel(mSunriseTime);
+    public void setRatio(float ratio) {
+        SunriseSunsetRenderer renderer = mRenderer;
+        renderer.setRatio(ratio);
+        float oldRatio = mInvalidatedRatio;
+        if (renderer.getTrackRadius() <= 0 || getWidth() == 0
+                || oldRatio < 0 || oldRatio > 1 || ratio < 0 || ratio > 1) {
+            // 尚未布局或超出轨迹范围, 全部重绘
+            invalidateAll();
+            return;
+        }
 
-        mLabelPaint.setTextAlign(Paint.Align.LEFT);
-        Paint.FontMetricsInt metricsInt = mLabelPaint.getFontMetricsInt();
-        float baseLineX = mBoardRectF.left + mSunRadius + mLabelHorizontalOffset;
-        float baseLineY = mBoardRectF.bottom - metricsInt.bottom - mLabelVerticalOffset;
-        canvas.drawText(sunriseStr, baseLineX, baseLineY, mLabelPaint);
+        SunArcGeometry geometry = renderer.getGeometry();
+        float dx = geometry.sunX(ratio) - geometry.sunX(oldRatio);
+        float dy = geometry.sunY(ratio) - geometry.sunY(oldRatio);
+        if (dx * dx + dy * dy < mRatioInvalidateThreshold * mRatioInvalidateThreshold) {
+            // 亚像素级的移动, 等待累计到阈值后再重绘
+            mSuppressedInvalidateCount++;
+            if (mDrawMetrics != null) {
+                mDrawMetrics.recordSuppressedInvalidate();
+            }
+            return;
+        }
+        mInvalidatedRatio = ratio;
 
-        // 绘制日落时间
-        mLabelPaint.setTextAlign(Paint.Align.RIGHT);
-        String sunsetStr = mLabelFormatter.formatSunsetLabel(mSunsetTime);
-        baseLineX = mBoardRectF.right - mSunRadius - mLabelHorizontalOffset;
-        canvas.drawText(sunsetStr, baseLineX, baseLineY, mLabelPaint);
-        canvas.restore();
+        // 新旧太阳的外接矩形及阴影变化区域
+        float sunExtent = renderer.getStyle().getSunRadius() + SunriseSunsetRenderer.SUN_STROKE_WIDTH_PX;
+        float[] dirty = mDirtyBounds;
+        geometry.changedBounds(oldRatio, ratio, sunExtent, dirty, 0);
+
+        mPartialInvalidateCount++;
+        if (mDrawMetrics != null) {
+            mDrawMetrics.recordPartialInvalidate();
+        }
+        invalidate((int) dirty[0] - DIRTY_RECT_OUTSET_PX, (int) dirty[1] - DIRTY_RECT_OUTSET_PX,
+                (int) Math.ceil(dirty[2]) + DIRTY_RECT_OUTSET_PX, (int) Math.ceil(dirty[3]) + DIRTY_RECT_OUTSET_PX);
     }
 
-    public void setRatio(float ratio) {
-        mRatio = ratio;
+    // 全部重绘
+    private void invalidateAll() {
+        mInvalidatedRatio = mRenderer.getRatio();
+        if (mDrawMetrics != null) {
+            mDrawMetrics.recordFullInvalidate();
+        }
         invalidate();
     }
 
+    /**
+     * 计算太阳位置时是否使用 sin/cos 查找表, 参见 {@link SunriseSunsetRenderer#setTrigLookupTableEnabled(boolean)}
+     */
+    public void setTrigLookupTableEnabled(boolean enabled) {
+        mRenderer.setTrigLookupTableEnabled(enabled);
+    }
+
+    public boolean isTrigLookupTableEnabled() {
+        return mRenderer.isTrigLookupTableEnabled();
+    }
+
+    /**
+     * 设置 setRatio 的重绘阈值(像素), 太阳中心的屏幕位移小于该值时不会触发重绘. 传入0则每次都重绘
+     */
+    public void setRatioInvalidateThreshold(float thresholdInPx) {
+        mRatioInvalidateThreshold = thresholdInPx;
+    }
+
+    public float getRatioInvalidateThreshold() {
+        return mRatioInvalidateThreshold;
+    }
+
+    /**
+     * setRatio 中因位移小于阈值而被跳过的重绘次数
+     */
+    public int getSuppressedInvalidateCount() {
+        return mSuppressedInvalidateCount;
+    }
+
+    /**
+     * setRatio 中只重绘太阳及阴影变化区域的次数
+     */
+    public int getPartialInvalidateCount() {
+        return mPartialInvalidateCount;
+    }
+
+    public void resetInvalidateCounts() {
+        mSuppressedInvalidateCount = 0;
+        mPartialInvalidateCount = 0;
+    }
+
+    /**
+     * @deprecated 使用 {@link #setSunriseTimeOfDay(TimeOfDay)}, 设置后再修改 sunriseTime 不会影响当前View
+     */
+    @Deprecated
     public void setSunriseTime(Time sunriseTime) {
-        mSunriseTime = sunriseTime;
+        setSunriseTimeOfDay(sunriseTime == null ? null : sunriseTime.toTimeOfDay());
     }
 
+    public void setSunriseTimeOfDay(TimeOfDay sunriseTime) {
+        clearSolarEvents();
+        if (mRenderer.setTimes(sunriseTime, mRenderer.getSunsetTime())) {
+            scheduleLiveTick();
+            invalidateAll();
+        }
+    }
+
+    /**
+     * @deprecated 使用 {@link #getSunriseTimeOfDay()}, 返回值为副本
+     */
+    @Deprecated
     public Time getSunriseTime() {
-        return mSunriseTime;
+        TimeOfDay sunrise = mRenderer.getSunriseTime();
+        return sunrise == null ? null : new Time(sunrise);
+    }
+
+    public TimeOfDay getSunriseTimeOfDay() {
+        return mRenderer.getSunriseTime();
     }
 
+    /**
+     * @deprecated 使用 {@link #setSunsetTimeOfDay(TimeOfDay)}, 设置后再修改 sunsetTime 不会影响当前View
+     */
+    @Deprecated
     public void setSunsetTime(Time sunsetTime) {
-        mSunsetTime = sunsetTime;
+        setSunsetTimeOfDay(sunsetTime == null ? null : sunsetTime.toTimeOfDay());
+    }
+
+    public void setSunsetTimeOfDay(TimeOfDay sunsetTime) {
+        clearSolarEvents();
+        if (mRenderer.setTimes(mRenderer.getSunriseTime(), sunsetTime)) {
+            scheduleLiveTick();
+            invalidateAll();
+        }
     }
 
+    /**
+     * @deprecated 使用 {@link #getSunsetTimeOfDay()}, 返回值为副本
+     */
+    @Deprecated
     public Time getSunsetTime() {
-        return mSunsetTime;
+        TimeOfDay sunset = mRenderer.getSunsetTime();
+        return sunset == null ? null : new Time(sunset);
+    }
+
+    public TimeOfDay getSunsetTimeOfDay() {
+        return mRenderer.getSunsetTime();
+    }
+
+    /**
+     * 使用 {@link SolarCalculator} 的计算结果设置日出日落时间.
+     * 极昼时为 00:00 - 23:59, 极夜时日出日落相同, 太阳停留在起点
+     */
+    public void setSolarDay(SolarDay solarDay) {
+        setSunriseTimeOfDay(solarDay.getSunrise());
+        setSunsetTimeOfDay(solarDay.getSunset());
+    }
+
+    /**
+     * 时间轴模式: 按 {@link #setDayIndex(float)} 在表中逐日切换日出日落时间, 适用于按年拖动查看日长变化.
+     * 切换日期不会创建对象, 也不会启动动画; 太阳位置按调用本方法时时钟的当天时间计算.
+     * 传入null退出时间轴模式, 设置日出日落时间、事件索引或 bind 也会退出时间轴模式
+     */
+    public void setTimeline(SunriseSunsetTimeline timeline) {
+        cancelAnimate();
+        clearSolarEvents();
+        mTimelineMillisOfDay = currentMillisOfDay();
+        mRenderer.setTimeline(timeline);
+        if (timeline != null) {
+            mRenderer.setRatio(timeline.ratioAt(0, mTimelineMillisOfDay));
+        }
+        scheduleLiveTick();
+        invalidateAll();
+    }
+
+    public SunriseSunsetTimeline getTimeline() {
+        return mRenderer.getTimeline();
+    }
+
+    /**
+     * 使用事件索引中某个地点的日出日落, 日出日落时间按时钟自动切换到当天.
+     * 非实时模式下只在状态切换时唤醒一次并更新太阳位置: 日出、日落, 以及日落后的当地0点(切换为下一天的日出前);
+     * 实时模式下照常更新, 每次更新时按索引切换日期. 传入null取消, 设置日出日落时间、时间轴或 bind 也会取消
+     *
+     * @param location 地点在索引中的序号
+     */
+    public void setSolarEvents(SolarEventIndex index, int location) {
+        if (index != null && (location < 0 || location >= index.getLocationCount())) {
+            throw new IndexOutOfBoundsException("location " + location + " out of [0, " + index.getLocationCount() + ")");
+        }
+        removeCallbacks(mSolarTransition);
+        mSolarEvents = index;
+        mSolarEventLocation = location;
+        if (index == null) {
+            return;
+        }
+        SunClock clock = currentClock();
+        applySolarEvents(clock.currentTimeMillis(), clock.getTimeZone());
+        scheduleSolarTransition();
+        scheduleLiveTick();
+    }
+
+    public SolarEventIndex getSolarEvents() {
+        return mSolarEvents;
+    }
+
+    public int getSolarEventLocation() {
+        return mSolarEventLocation;
+    }
+
+    private void clearSolarEvents() {
+        if (mSolarEvents != null) {
+            mSolarEvents = null;
+            removeCallbacks(mSolarTransition);
+        }
+    }
+
+    // 按索引设置 nowMillis 所在日期的日出日落时间, 返回下一次状态切换的时刻, 索引中没有后续事件时返回-1
+    private long applySolarEvents(long nowMillis, TimeZone zone) {
+        SolarEventIndex index = mSolarEvents;
+        int location = mSolarEventLocation;
+        int next = index.nextEvent(location, nowMillis);
+        if (next < 0) {
+            return -1;
+        }
+        long transition = index.getEventTimeMillis(next);
+        int sunrise;
+        if (index.getEventType(next) == SolarEventIndex.EVENT_SUNSET) {
+            // 白天, 上一个事件为当天的日出
+            sunrise = next - 1;
+        } else {
+            long midnight = SunTiming.nextMidnightMillis(nowMillis, zone);
+            if (transition < midnight) {
+                // 日出前
+                sunrise = next;
+            } else {
+                // 日落后, 到当地0点时切换为下一天的日出前
+                sunrise = next - 2;
+                transition = midnight;
+            }
+        }
+        // 极昼/极夜前后缺少成对的事件时保持当前时间
+        int sunset = sunrise + 1;
+        if (sunrise >= index.getEventStart(location) && sunset < index.getEventEnd(location)
+                && index.getEventType(sunrise) == SolarEventIndex.EVENT_SUNRISE
+                && index.getEventType(sunset) == SolarEventIndex.EVENT_SUNSET
+                && mRenderer.setTimes(SunTiming.localMinuteOf(index.getEventTimeMillis(sunrise), zone),
+                SunTiming.localMinuteOf(index.getEventTimeMillis(sunset), zone))) {
+            invalidateAll();
+        }
+        return transition;
+    }
+
+    // 非实时模式下只安排一次唤醒, 在下一次状态切换时更新
+    private void scheduleSolarTransition() {
+        removeCallbacks(mSolarTransition);
+        if (mSolarEvents == null || mLiveMode || !isAnimationActive()) {
+            return;
+        }
+        SunClock clock = currentClock();
+        long now = clock.currentTimeMillis();
+        long transition = applySolarEvents(now, clock.getTimeZone());
+        if (transition >= 0) {
+            postDelayed(mSolarTransition, transition - now);
+        }
+    }
+
+    private void onSolarTransition() {
+        scheduleSolarTransition();
+        if (mSolarEvents != null && !isAnimating()) {
+            setRatio(computeRatioAt(currentMillisOfDay()));
+        }
+    }
+
+    // 实时模式的每次更新前按索引切换日期
+    private void applyCurrentSolarEvents() {
+        if (mSolarEvents != null) {
+            SunClock clock = currentClock();
+            applySolarEvents(clock.currentTimeMillis(), clock.getTimeZone());
+        }
+    }
+
+    /**
+     * 设置晨昏蒙影时间, 用于绘制晨昏蒙影色带({@link SunriseSunsetStyle.Builder#setTwilightBandWidth(float)})
+     * 及按时钟切换天空渐变的阶段({@link SunriseSunsetStyle.Builder#setSkyColors(int, int)}).
+     * 未设置时天空始终为白昼的渐变
+     */
+    public void setTwilight(TwilightDay twilight) {
+        mRenderer.setTwilight(twilight);
+        if (twilight == null) {
+            mRenderer.setSkyPhase(TwilightDay.PHASE_DAY);
+        } else {
+            updateSkyPhase(currentMillisOfDay());
+        }
+        invalidateAll();
+    }
+
+    public TwilightDay getTwilight() {
+        return mRenderer.getTwilight();
+    }
+
+    // 按当天时间更新天空阶段, 阶段变化时全部重绘
+    private void updateSkyPhase(long millisOfDay) {
+        TwilightDay twilight = mRenderer.getTwilight();
+        if (twilight != null && mRenderer.setSkyPhase(twilight.phaseAt(millisOfDay / 60000f))) {
+            invalidateAll();
+        }
+    }
+
+    /**
+     * 时间轴模式下切换到第 dayIndex 天, 超出范围时取首尾. 小数部分在相邻两天之间插值,
+     * 标签显示最接近的一天. 标签不变时只重绘太阳移动的区域
+     */
+    public void setDayIndex(float dayIndex) {
+        SunriseSunsetTimeline timeline = mRenderer.getTimeline();
+        if (timeline == null) {
+            throw new IllegalStateException("setTimeline() must be called before setDayIndex()");
+        }
+        if (isAnimating()) {
+            cancelAnimate();
+        }
+        float ratio = timeline.ratioAt(dayIndex, mTimelineMillisOfDay);
+        if (mRenderer.setDayIndex(dayIndex)) {
+            mRenderer.setRatio(ratio);
+            invalidateAll();
+        } else {
+            setRatio(ratio);
+        }
+    }
+
+    public float getDayIndex() {
+        return mRenderer.getDayIndex();
     }
 
     public float getSunRadius() {
-        return mSunRadius;
+        return mRenderer.getStyle().getSunRadius();
     }
 
     public SunriseSunsetLabelFormatter getLabelFormatter() {
-        return mLabelFormatter;
+        return mRenderer.getLabelFormatter();
     }
 
     public void setLabelFormatter(SunriseSunsetLabelFormatter labelFormatter) {
-        mLabelFormatter = labelFormatter;
+        if (mRenderer.getLabelFormatter() == labelFormatter) {
+            return;
+        }
+        mRenderer.setLabelFormatter(labelFormatter);
+        invalidateAll();
     }
 
     public void setTrackColor(int trackColor) {
-        mTrackColor = trackColor;
+        setStyle(mRenderer.getStyle().buildUpon().setTrackColor(trackColor).build());
     }
 
     public void setTrackWidth(int trackWidthInPx) {
-        mTrackWidth = trackWidthInPx;
+        setStyle(mRenderer.getStyle().buildUpon().setTrackWidth(trackWidthInPx).build());
     }
 
     public void setTrackPathEffect(PathEffect trackPathEffect) {
-        mTrackPathEffect = trackPathEffect;
+        setStyle(mRenderer.getStyle().buildUpon().setTrackPathEffect(trackPathEffect).build());
     }
 
     public void setSunColor(int sunColor) {
-        mSunColor = sunColor;
+        setStyle(mRenderer.getStyle().buildUpon().setSunColor(sunColor).build());
     }
 
     public void setSunRadius(float sunRadius) {
-        mSunRadius = sunRadius;
+        setStyle(mRenderer.getStyle().buildUpon().setSunRadius(sunRadius).build());
     }
 
     public void setSunPaintStyle(Paint.Style sunPaintStyle) {
-        mSunPaintStyle = sunPaintStyle;
+        setStyle(mRenderer.getStyle().buildUpon().setSunPaintStyle(sunPaintStyle).build());
     }
 
     public void setShadowColor(int shadowColor) {
-        mShadowColor = shadowColor;
+        setStyle(mRenderer.getStyle().buildUpon().setShadowColor(shadowColor).build());
     }
 
     public void setLabelTextSize(int labelTextSize) {
-        mLabelTextSize = labelTextSize;
+        setStyle(mRenderer.getStyle().buildUpon().setLabelTextSize(labelTextSize).build());
     }
 
     public void setLabelTextColor(int labelTextColor) {
-        mLabelTextColor = labelTextColor;
+        setStyle(mRenderer.getStyle().buildUpon().setLabelTextColor(labelTextColor).build());
     }
 
     public void setLabelVerticalOffset(int labelVerticalOffset) {
-        mLabelVerticalOffset = labelVerticalOffset;
+        setStyle(mRenderer.getStyle().buildUpon().setLabelVerticalOffset(labelVerticalOffset).build());
     }
 
     public void setLabelHorizontalOffset(int labelHorizontalOffset) {
-        mLabelHorizontalOffset = labelHorizontalOffset;
+        setStyle(mRenderer.getStyle().buildUpon().setLabelHorizontalOffset(labelHorizontalOffset).build());
+    }
+
+    public SunriseSunsetStyle getStyle() {
+        return mRenderer.getStyle();
+    }
+
+    /**
+     * 一次性应用样式, 样式不可变, 可以在多个View之间共享.
+     * 只重新配置发生变化的画笔, 只有View尺寸受影响时(wrap_content 宽度下太阳半径变化)才会 requestLayout,
+     * 最多触发一次重绘, 样式相同时不做任何事
+     */
+    public void setStyle(SunriseSunsetStyle style) {
+        int change = mRenderer.applyStyle(style);
+        if (change == SunriseSunsetRenderer.STYLE_CHANGE_NONE) {
+            return;
+        }
+        if (change == SunriseSunsetRenderer.STYLE_CHANGE_LAYOUT) {
+            relayoutForStyle();
+        }
+        invalidateAll();
     }
 
+    // 太阳半径变化: 尺寸不变时直接按当前宽度重新计算几何信息, 否则重新布局
+    private void relayoutForStyle() {
+        int width = getMeasuredWidth();
+        if (mWrapContentWidth || width == 0) {
+            requestLayout();
+        } else {
+            mRenderer.layout(width, getPaddingLeft(), getPaddingTop(), getPaddingRight(), getPaddingBottom());
+        }
+    }
+
+    /**
+     * 当前的日出日落时间、比率及样式
+     */
+    public SunriseSunsetState getState() {
+        return new SunriseSunsetState(mRenderer.getSunriseTime(), mRenderer.getSunsetTime(),
+                mRenderer.getRatio(), mRenderer.getStyle());
+    }
+
+    /**
+     * 应用状态, 不播放动画
+     *
+     * @see #bind(SunriseSunsetState, boolean)
+     */
+    public void bind(SunriseSunsetState state) {
+        bind(state, false);
+    }
+
+    /**
+     * 一次性应用日出日落时间、比率及样式, 适用于 RecyclerView 的 onBindViewHolder.
+     * 与当前状态比较, 只重新计算发生变化的部分(布局、标签、画笔), 尺寸不受影响时不会 requestLayout,
+     * 最多触发一次重绘. 会取消正在进行的动画
+     *
+     * @param animate 是否从起点播放动画到 state 的比率, 复用的列表项通常传false直接显示最终位置
+     */
+    public void bind(SunriseSunsetState state, boolean animate) {
+        clearSolarEvents();
+        int change = SunriseSunsetRenderer.STYLE_CHANGE_NONE;
+        if (state.getStyle() != null) {
+            change = mRenderer.applyStyle(state.getStyle());
+        }
+        if (mRenderer.setTimes(state.getSunrise(), state.getSunset())) {
+            scheduleLiveTick();
+            change = Math.max(change, SunriseSunsetRenderer.STYLE_CHANGE_DRAW);
+        }
+
+        cancelAnimate();
+        if (change == SunriseSunsetRenderer.STYLE_CHANGE_LAYOUT) {
+            relayoutForStyle();
+        }
+        if (animate) {
+            if (change != SunriseSunsetRenderer.STYLE_CHANGE_NONE) {
+                invalidateAll();
+            }
+            animateRatio(state.getRatio());
+        } else if (change != SunriseSunsetRenderer.STYLE_CHANGE_NONE) {
+            mRenderer.setRatio(state.getRatio());
+            invalidateAll();
+        } else {
+            setRatio(state.getRatio());
+        }
+    }
+
+    /**
+     * 设置绘制统计监听, 统计各绘制阶段耗时、帧数、重绘次数及动画帧率.
+     * 传入null关闭统计, 未设置时不会产生任何额外开销
+     */
+    public void setDrawMetricsListener(DrawMetricsListener listener) {
+        mDrawMetricsListener = listener;
+        if (listener == null) {
+            mDrawMetrics = null;
+        } else if (mDrawMetrics == null) {
+            mDrawMetrics = new DrawMetrics();
+        }
+    }
+
+    /**
+     * 当前的绘制统计, 未设置统计监听时为null
+     */
+    public DrawMetrics getDrawMetrics() {
+        return mDrawMetrics;
+    }
+
+    /**
+     * 是否启用静态图层缓存. 启用后轨迹和标签会被绘制到离屏Bitmap中,
+     * 只有在尺寸、样式或时间变化时才会重绘, 每帧只实时绘制阴影和太阳.
+     * 注意: 启用后阴影会绘制在轨迹和标签之下, 且会额外占用一张View大小的Bitmap
+     */
+    public void setStaticLayerCacheEnabled(boolean enabled) {
+        if (mStaticLayerCacheEnabled == enabled) {
+            return;
+        }
+        mStaticLayerCacheEnabled = enabled;
+        if (!enabled) {
+            releaseStaticLayer();
+        }
+        invalidate();
+    }
+
+    public boolean isStaticLayerCacheEnabled() {
+        return mStaticLayerCacheEnabled;
+    }
+
+    public float getRatio() {
+        return mRenderer.getRatio();
+    }
+
+    /**
+     * 设置动画时长, 默认1500ms
+     */
+    public void setAnimateDuration(long durationMillis) {
+        mAnimateDuration = durationMillis;
+    }
+
+    public long getAnimateDuration() {
+        return mAnimateDuration;
+    }
+
+    /**
+     * 设置动画插值器, 默认为 {@link LinearInterpolator}
+     */
+    public void setAnimateInterpolator(TimeInterpolator interpolator) {
+        mAnimateInterpolator = interpolator == null ? new LinearInterpolator() : interpolator;
+    }
+
+    public TimeInterpolator getAnimateInterpolator() {
+        return mAnimateInterpolator;
+    }
+
+    /**
+     * 开始日出日落动画. 动画进行中再次调用时会从当前位置平滑地过渡到新的目标位置,
+     * View 不可见或未 attach 时动画会暂停, 重新可见后继续
+     */
     public void startAnimate() {
-        if (mSunriseTime == null || mSunsetTime == null) {
+        if (!mRenderer.hasLabels()) {
             throw new RuntimeException("You need to set both sunrise and sunset time before start animation");
         }
-        int sunrise = mSunriseTime.transformToMinutes();
-        int sunset = mSunsetTime.transformToMinutes();
-        Calendar calendar = Calendar.getInstance(Locale.getDefault());
-        int currentHour = calendar.get(Calendar.HOUR_OF_DAY);
-        int currentMinute = calendar.get(Calendar.MINUTE);
-        int currentTime = currentHour * Time.MINUTES_PER_HOUR + currentMinute;
-        float ratio = 1.0f * (currentTime - sunrise) / (sunset - sunrise);
-        ratio = ratio <= 0 ? 0 : (ratio > 1.0f ? 1 : ratio);
-        ObjectAnimator animator = ObjectAnimator.ofFloat(this, "ratio", 0f, ratio);
-        animator.setDuration(1500L);
-        animator.setInterpolator(new LinearInterpolator());
-        animator.start();
+        animateRatio(computeRatioAt(currentMillisOfDay()));
+    }
+
+    // 根据当天毫秒数计算比率, 范围[0, 1], 同时更新天空阶段. 时间轴模式下按插值后的日出日落时间计算, 并作为拖动时的参考时间
+    private float computeRatioAt(long millisOfDay) {
+        updateSkyPhase(millisOfDay);
+        SunriseSunsetTimeline timeline = mRenderer.getTimeline();
+        if (timeline != null) {
+            mTimelineMillisOfDay = millisOfDay;
+            return timeline.ratioAt(mRenderer.getDayIndex(), millisOfDay);
+        }
+        return SunTiming.ratioAt(mRenderer.getSunriseTime(), mRenderer.getSunsetTime(), millisOfDay);
+    }
+
+    // 当前时钟所在时区的当天毫秒数
+    private long currentMillisOfDay() {
+        return SunTiming.millisOfDay(currentClock());
+    }
+
+    // 共享调度器模式下使用调度器的时钟
+    private SunClock currentClock() {
+        return mUseSharedScheduler ? SunriseSunsetScheduler.getInstance().getClock() : mClock;
+    }
+
+    /**
+     * 设置获取当前时间的时钟, 默认为 {@link SunClock#SYSTEM}.
+     * 共享调度器模式下使用 {@link SunriseSunsetScheduler#setClock(SunClock)} 设置的时钟
+     */
+    public void setClock(SunClock clock) {
+        mClock = clock == null ? SunClock.SYSTEM : clock;
+        scheduleLiveTick();
+        scheduleSolarTransition();
+    }
+
+    public SunClock getClock() {
+        return mClock;
+    }
+
+    /**
+     * 实时模式: 太阳位置随时钟持续更新. 下一次更新被安排在太阳沿轨迹移动恰好1像素的时刻,
+     * 日出前或日落后则安排在日出或次日0点. View 不可见或 detach 后自动停止, 重新可见时恢复.
+     * 需要先设置日出日落时间
+     */
+    public void setLiveMode(boolean liveMode) {
+        if (mLiveMode == liveMode) {
+            return;
+        }
+        mLiveMode = liveMode;
+        removeCallbacks(mLiveTick);
+        scheduleSolarTransition();
+        if (!liveMode) {
+            return;
+        }
+        if (mUseSharedScheduler) {
+            if (mSharedRegistered) {
+                SunriseSunsetScheduler.getInstance().requestLiveTick();
+            }
+        } else {
+            post(mLiveTick);
+        }
+    }
+
+    public boolean isLiveMode() {
+        return mLiveMode;
+    }
+
+    // 实时模式的一次更新, 动画进行中时只安排下一次更新
+    private void onLiveTick() {
+        if (!mLiveMode || !mRenderer.hasLabels()) {
+            return;
+        }
+        applyCurrentSolarEvents();
+        if (!isAnimating()) {
+            setRatio(computeRatioAt(currentMillisOfDay()));
+        }
+        scheduleLiveTick();
+    }
+
+    private void scheduleLiveTick() {
+        removeCallbacks(mLiveTick);
+        if (!mLiveMode || !mRenderer.hasLabels()) {
+            return;
+        }
+        if (mUseSharedScheduler) {
+            // 由调度器统一重新安排
+            if (mSharedRegistered) {
+                SunriseSunsetScheduler.getInstance().requestLiveTick();
+            }
+            return;
+        }
+        if (isAnimationActive()) {
+            postDelayed(mLiveTick, computeLiveTickDelayAt(currentMillisOfDay()));
+        }
+    }
+
+    // 距离太阳移动1像素(或下一次日出/0点)的毫秒数
+    private long computeLiveTickDelayAt(long millisOfDay) {
+        return SunTiming.liveTickDelay(mRenderer.getSunriseTime(), mRenderer.getSunsetTime(),
+                millisOfDay, mRenderer.getTrackRadius());
+    }
+
+    /**
+     * 使用进程内共享的 {@link SunriseSunsetScheduler} 驱动动画和实时模式, 代替每个View各自的
+     * 动画和定时任务. 同时显示大量View时可减少帧回调和定时任务的数量. 切换时会取消正在进行的动画
+     */
+    public void setUseSharedScheduler(boolean useSharedScheduler) {
+        if (mUseSharedScheduler == useSharedScheduler) {
+            return;
+        }
+        cancelAnimate();
+        removeCallbacks(mLiveTick);
+        unregisterShared();
+        mUseSharedScheduler = useSharedScheduler;
+        updateAnimatorState();
+    }
+
+    public boolean isUseSharedScheduler() {
+        return mUseSharedScheduler;
+    }
+
+    private void registerShared() {
+        if (!mSharedRegistered) {
+            mSharedRegistered = true;
+            mSharedAnimLastFrameNanos = -1;
+            SunriseSunsetScheduler.getInstance().register(this);
+        }
+    }
+
+    private void unregisterShared() {
+        if (mSharedRegistered) {
+            mSharedRegistered = false;
+            SunriseSunsetScheduler.getInstance().unregister(this);
+        }
+    }
+
+    boolean isSharedAnimating() {
+        return mSharedAnimating;
+    }
+
+    /**
+     * 由调度器在每帧调用, 返回动画是否仍需要下一帧
+     */
+    boolean doSharedAnimationFrame(long frameTimeNanos) {
+        if (!mSharedAnimating) {
+            return false;
+        }
+        // 暂停后的第一帧只记录时间, 不计入播放时长
+        if (mSharedAnimLastFrameNanos >= 0) {
+            mSharedAnimElapsedNanos += frameTimeNanos - mSharedAnimLastFrameNanos;
+        }
+        mSharedAnimLastFrameNanos = frameTimeNanos;
+        long durationNanos = mAnimateDuration * 1000000L;
+        float fraction = durationNanos <= 0 ? 1f : Math.min(1f, (float) mSharedAnimElapsedNanos / durationNanos);
+        float interpolated = mAnimateInterpolator != null ? mAnimateInterpolator.getInterpolation(fraction) : fraction;
+        setRatio(mAnimateFromRatio + (mAnimateToRatio - mAnimateFromRatio) * interpolated);
+        if (mDrawMetrics != null) {
+            mDrawMetrics.recordAnimatorFrame(System.nanoTime());
+        }
+        if (fraction >= 1f) {
+            mSharedAnimating = false;
+            if (mDrawMetrics != null) {
+                mDrawMetrics.endAnimatorRun();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 由调度器的定时任务调用, 返回距离下一次需要更新的毫秒数, 不需要更新时返回-1
+     */
+    long doSharedLiveTick(long millisOfDay) {
+        if (!mLiveMode || !mRenderer.hasLabels()) {
+            return -1;
+        }
+        applyCurrentSolarEvents();
+        if (!isAnimating()) {
+            setRatio(computeRatioAt(millisOfDay));
+        }
+        return computeLiveTickDelayAt(millisOfDay);
+    }
+
+    // 动画进行中(包括暂停)时从当前位置过渡, 否则从起点开始
+    private void animateRatio(float targetRatio) {
+        float fromRatio = isAnimating() ? mRenderer.getRatio() : 0f;
+        runRatioAnimation(fromRatio, targetRatio, 0);
+    }
+
+    // 从 playTime 处开始播放 fromRatio 到 toRatio 的动画, 不可见时先暂停
+    private void runRatioAnimation(float fromRatio, float toRatio, long playTime) {
+        mAnimateFromRatio = fromRatio;
+        mAnimateToRatio = toRatio;
+        if (mUseSharedScheduler) {
+            mSharedAnimElapsedNanos = playTime * 1000000L;
+            mSharedAnimLastFrameNanos = -1;
+            mSharedAnimating = true;
+            if (mSharedRegistered) {
+                SunriseSunsetScheduler.getInstance().requestAnimationFrame();
+            }
+            return;
+        }
+        ObjectAnimator animator = obtainRatioAnimator();
+        mRatioAnimatorPaused = false;
+        animator.cancel();
+        animator.setFloatValues(fromRatio, toRatio);
+        animator.setDuration(mAnimateDuration);
+        animator.setInterpolator(mAnimateInterpolator);
+        startRatioAnimatorAt(playTime);
+        if (!isAnimationActive()) {
+            pauseRatioAnimator();
+        }
+    }
+
+    // 未完成动画已播放的毫秒数, 没有动画时为-1
+    private long getAnimatePlayTime() {
+        if (mUseSharedScheduler) {
+            return mSharedAnimating ? mSharedAnimElapsedNanos / 1000000L : -1;
+        }
+        if (mRatioAnimatorPaused) {
+            return mPausedPlayTime;
+        }
+        if (mRatioAnimator != null && mRatioAnimator.isRunning()) {
+            return mRatioAnimator.getCurrentPlayTime();
+        }
+        return -1;
+    }
+
+    /**
+     * 取消正在进行(或已暂停)的动画, 太阳停留在当前位置
+     */
+    public void cancelAnimate() {
+        mSharedAnimating = false;
+        mRatioAnimatorPaused = false;
+        if (mRatioAnimator != null) {
+            mRatioAnimator.cancel();
+        }
+    }
+
+    public boolean isAnimating() {
+        return mSharedAnimating || mRatioAnimatorPaused || (mRatioAnimator != null && mRatioAnimator.isRunning());
+    }
+
+    // 每个View只创建一个动画, 通过 RATIO 属性驱动, 不使用反射
+    private ObjectAnimator obtainRatioAnimator() {
+        if (mRatioAnimator == null) {
+            mRatioAnimator = ObjectAnimator.ofFloat(this, RATIO, 0f, 1f);
+            mRatioAnimator.addUpdateListener(mAnimatorMetricsListener);
+            mRatioAnimator.addListener(mAnimatorMetricsEndListener);
+        }
+        return mRatioAnimator;
+    }
+
+    // 可见且已attach时动画才需要运行
+    private boolean isAnimationActive() {
+        return isAttachedToWindow() && getWindowVisibility() == VISIBLE && isShown();
+    }
+
+    // 暂停动画: 记录进度后取消, 避免暂停的动画仍然占用帧回调或持有View
+    private void pauseRatioAnimator() {
+        if (mRatioAnimator != null && mRatioAnimator.isRunning()) {
+            mPausedPlayTime = mRatioAnimator.getCurrentPlayTime();
+            mRatioAnimator.cancel();
+            mRatioAnimatorPaused = true;
+        }
+    }
+
+    private void resumeRatioAnimator() {
+        if (mRatioAnimatorPaused) {
+            mRatioAnimatorPaused = false;
+            startRatioAnimatorAt(mPausedPlayTime);
+        }
+    }
+
+    // 从 playTime 处开始播放. 必须在 start 之后定位: API 21-23 的 start 会把播放时间重置为0
+    private void startRatioAnimatorAt(long playTime) {
+        mRatioAnimator.start();
+        if (playTime > 0) {
+            mRatioAnimator.setCurrentPlayTime(playTime);
+        }
+    }
+
+    private void updateAnimatorState() {
+        // 不可见期间可能错过了状态切换
+        if (isAnimationActive() && mSolarEvents != null) {
+            onSolarTransition();
+        } else {
+            removeCallbacks(mSolarTransition);
+        }
+        if (mUseSharedScheduler) {
+            // 共享模式下只在可见时注册到调度器, 注销即暂停
+            if (isAnimationActive()) {
+                registerShared();
+            } else {
+                unregisterShared();
+            }
+            return;
+        }
+        if (isAnimationActive()) {
+            resumeRatioAnimator();
+        } else {
+            pauseRatioAnimator();
+        }
+        scheduleLiveTick();
+    }
+
+    /**
+     * 保存日出日落时间、比率及未完成动画的进度(需要为View设置id).
+     * 恢复时直接显示保存时的位置, 未完成的动画从中断处继续, 不会从起点重新播放
+     */
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState state = new SavedState(super.onSaveInstanceState());
+        state.sunriseSecond = toSecondOfDay(mRenderer.getSunriseTime());
+        state.sunsetSecond = toSecondOfDay(mRenderer.getSunsetTime());
+        state.ratio = mRenderer.getRatio();
+        state.dayIndex = mRenderer.getDayIndex();
+        state.animatePlayTime = getAnimatePlayTime();
+        state.animateFromRatio = mAnimateFromRatio;
+        state.animateToRatio = mAnimateToRatio;
+        return state;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState saved = (SavedState) state;
+        super.onRestoreInstanceState(saved.getSuperState());
+
+        // 恢复时可能已经在 onCreate 中调用过 startAnimate, 以保存的状态为准
+        cancelAnimate();
+        if (mRenderer.getTimeline() != null) {
+            // 时间轴不会被保存, 已重新设置时间轴时只恢复日期
+            mRenderer.setDayIndex(saved.dayIndex);
+        } else if (mRenderer.setTimes(ofSecondOfDay(saved.sunriseSecond), ofSecondOfDay(saved.sunsetSecond))) {
+            scheduleLiveTick();
+        }
+        mRenderer.setRatio(saved.ratio);
+        if (saved.animatePlayTime >= 0 && saved.animatePlayTime < mAnimateDuration) {
+            runRatioAnimation(saved.animateFromRatio, saved.animateToRatio, saved.animatePlayTime);
+        } else if (saved.animatePlayTime >= 0) {
+            mRenderer.setRatio(saved.animateToRatio);
+        }
+        invalidateAll();
+    }
+
+    private static int toSecondOfDay(TimeOfDay time) {
+        return time == null ? -1 : time.toSecondOfDay();
+    }
+
+    private static TimeOfDay ofSecondOfDay(int secondOfDay) {
+        return secondOfDay < 0 ? null : TimeOfDay.ofSecondOfDay(secondOfDay);
+    }
+
+    /**
+     * 保存的状态. 时间以当天秒数保存(未设置为-1), 没有未完成的动画时不写入动画的起止比率
+     */
+    static class SavedState extends BaseSavedState {
+        int sunriseSecond;
+        int sunsetSecond;
+        float ratio;
+        float dayIndex;
+        // 未完成动画已播放的毫秒数, 没有动画时为-1
+        long animatePlayTime = -1;
+        float animateFromRatio;
+        float animateToRatio;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            sunriseSecond = in.readInt();
+            sunsetSecond = in.readInt();
+            ratio = in.readFloat();
+            dayIndex = in.readFloat();
+            animatePlayTime = in.readLong();
+            if (animatePlayTime >= 0) {
+                animateFromRatio = in.readFloat();
+                animateToRatio = in.readFloat();
+            }
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeInt(sunriseSecond);
+            out.writeInt(sunsetSecond);
+            out.writeFloat(ratio);
+            out.writeFloat(dayIndex);
+            out.writeLong(animatePlayTime);
+            if (animatePlayTime >= 0) {
+                out.writeFloat(animateFromRatio);
+                out.writeFloat(animateToRatio);
+            }
+        }
+
+        public static final Creator<SavedState> CREATOR = new Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        updateAnimatorState();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateAnimatorState();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        updateAnimatorState();
     }
 
 }
@@ -0,0 +1,78 @@
+package com.github.tianma8023.geometry;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SunArcGeometryTest {
+
+    private static final float LEFT = 20;
+    private static final float TOP = 20;
+    private static final float RADIUS = 320;
+    private static final float BOTTOM = TOP + RADIUS;
+
+    @Test
+    public void sunPosition_followsTrack() {
+        SunArcGeometry geometry = new SunArcGeometry();
+        geometry.setTrack(LEFT, TOP, BOTTOM, RADIUS);
+        float[] out = new float[2];
+
+        geometry.sunPosition(0, out, 0);
+        assertEquals(LEFT, out[0], 1e-4f);
+        assertEquals(BOTTOM, out[1], 1e-4f);
+        geometry.sunPosition(0.5f, out, 0);
+        assertEquals(LEFT + RADIUS, out[0], 1e-3f);
+        assertEquals(TOP, out[1], 1e-4f);
+        geometry.shadowEnd(1, out, 0);
+        assertEquals(LEFT + 2 * RADIUS, out[0], 1e-4f);
+        assertEquals(BOTTOM, out[1], 0f);
+    }
+
+    @Test
+    public void lookupTable_isWithinErrorBound() {
+        SunArcGeometry exact = new SunArcGeometry();
+        SunArcGeometry table = SunArcGeometry.withLookupTable();
+        float maxError = 0;
+        for (int i = 0; i <= 1000000; i++) {
+            float ratio = i / 1000000f;
+            maxError = Math.max(maxError, Math.abs(exact.sin(ratio) - table.sin(ratio)));
+            maxError = Math.max(maxError, Math.abs(exact.cos(ratio) - table.cos(ratio)));
+        }
+        assertTrue("max error " + maxError, maxError < SunArcGeometry.DEFAULT_TABLE_MAX_ERROR);
+        // 超出 [0, 1] 时使用精确计算
+        assertEquals(exact.sin(-0.25f), table.sin(-0.25f), 0f);
+        assertEquals(exact.cos(1.5f), table.cos(1.5f), 0f);
+    }
+
+    @Test
+    public void changedBounds_coversBothSunsAndShadow() {
+        SunArcGeometry geometry = new SunArcGeometry();
+        geometry.setTrack(LEFT, TOP, BOTTOM, RADIUS);
+        float extent = 24;
+        float[] bounds = new float[4];
+        float[] sun = new float[4];
+
+        geometry.changedBounds(0.2f, 0.3f, extent, bounds, 0);
+        geometry.sunBounds(0.2f, extent, sun, 0);
+        assertContains(bounds, sun);
+        geometry.sunBounds(0.3f, extent, sun, 0);
+        assertContains(bounds, sun);
+        assertEquals(BOTTOM, bounds[3], 0f);
+
+        // 跨过最高点时包含轨迹顶部
+        geometry.changedBounds(0.45f, 0.55f, 0, bounds, 0);
+        assertEquals(TOP, bounds[1], 0f);
+    }
+
+    @Test
+    public void clampRatio() {
+        assertEquals(0f, SunArcGeometry.clampRatio(-0.5f), 0f);
+        assertEquals(0.25f, SunArcGeometry.clampRatio(0.25f), 0f);
+        assertEquals(1f, SunArcGeometry.clampRatio(3f), 0f);
+    }
+
+    private static void assertContains(float[] outer, float[] inner) {
+        assertTrue(outer[0] <= inner[0] && outer[1] <= inner[1] && outer[2] >= inner[2] && outer[3] >= inner[3]);
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.tianma8023.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TimeOfDayTest {
+
+    @Test
+    public void of_returnsPooledInstances() {
+        assertSame(TimeOfDay.of(6, 17), TimeOfDay.of(6, 17));
+        assertSame(TimeOfDay.of(6, 17), TimeOfDay.ofMinuteOfDay(6 * 60 + 17));
+        assertSame(TimeOfDay.of(6, 17), TimeOfDay.of(6, 17, 0));
+        assertNotSame(TimeOfDay.of(6, 17, 30), TimeOfDay.of(6, 17, 30));
+    }
+
+    @Test
+    public void fields_areUnpackedFromSecondOfDay() {
+        TimeOfDay time = TimeOfDay.of(18, 32, 45);
+        assertEquals(18, time.getHour());
+        assertEquals(32, time.getMinute());
+        assertEquals(45, time.getSecond());
+        assertEquals(18 * 60 + 32, time.toMinuteOfDay());
+        assertEquals("18:32:45", time.toString());
+    }
+
+    @Test
+    public void compareAndDifference() {
+        TimeOfDay sunrise = TimeOfDay.of(6, 17);
+        TimeOfDay sunset = TimeOfDay.of(18, 32);
+        assertTrue(sunrise.isBefore(sunset));
+        assertTrue(sunrise.compareTo(sunset) < 0);
+        assertEquals(735, sunrise.minutesUntil(sunset));
+        assertEquals(-735 * 60, sunset.secondsUntil(sunrise));
+    }
+
+    @Test
+    public void time_adaptsToTimeOfDay() {
+        Time legacy = new Time(6, 17);
+        assertSame(TimeOfDay.of(6, 17), legacy.toTimeOfDay());
+        assertEquals(legacy.transformToMinutes(), new Time(TimeOfDay.of(6, 17)).transformToMinutes());
+    }
+
+    @Test
+    public void time_clampsOutOfRangeToDay() {
+        assertSame(TimeOfDay.of(23, 59), new Time(24, 0).toTimeOfDay());
+        assertSame(TimeOfDay.of(23, 59), new Time(18, 900).toTimeOfDay());
+        assertSame(TimeOfDay.of(1, 30), new Time(0, 90).toTimeOfDay());
+        assertSame(TimeOfDay.MIDNIGHT, new Time(-1, 30).toTimeOfDay());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void of_rejectsOutOfRange() {
+        TimeOfDay.of(24, 0);
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.tianma8023.solar;
+
+import org.junit.Test;
+
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SolarCacheTest {
+
+    private static final int DAY = SolarCalculator.epochDay(2020, 6, 21);
+    private static final int OFFSET_BEIJING = 8 * 60;
+
+    @Test
+    public void getPacked_countsHitsAndMisses() {
+        SolarCache cache = new SolarCache(4);
+        int first = cache.getPacked(39.9042, 116.4074, DAY, OFFSET_BEIJING);
+        int second = cache.getPacked(39.9042, 116.4074, DAY, OFFSET_BEIJING);
+        assertEquals(first, second);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void getPacked_matchesCalculatorWithinQuantization() {
+        SolarCache cache = new SolarCache(4);
+        int cached = cache.getPacked(39.9042, 116.4074, DAY, OFFSET_BEIJING);
+        int exact = SolarCalculator.computePacked(39.9042, 116.4074, DAY, OFFSET_BEIJING);
+        assertTrue(Math.abs(SolarCalculator.sunriseOf(cached) - SolarCalculator.sunriseOf(exact)) <= 1);
+        assertTrue(Math.abs(SolarCalculator.sunsetOf(cached) - SolarCalculator.sunsetOf(exact)) <= 1);
+    }
+
+    @Test
+    public void get_returnsSolarDay() {
+        SolarCache cache = new SolarCache(4);
+        TimeZone oslo = TimeZone.getTimeZone("Europe/Oslo");
+        assertTrue(cache.get(69.6492, 18.9553, 2020, 6, 21, oslo).isPolarDay());
+        assertTrue(cache.get(69.6492, 18.9553, 2020, 6, 21, oslo).isPolarDay());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void sameCell_sharesEntry() {
+        SolarCache cache = new SolarCache(4);
+        cache.getPacked(39.9042, 116.4074, DAY, OFFSET_BEIJING);
+        cache.getPacked(39.9001, 116.4099, DAY, OFFSET_BEIJING);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void full_evictsLeastRecentlyUsed() {
+        SolarCache cache = new SolarCache(2);
+        cache.getPacked(10, 10, DAY, 0);
+        cache.getPacked(20, 20, DAY, 0);
+        // 访问第一个, 使第二个成为最近最少使用
+        cache.getPacked(10, 10, DAY, 0);
+        cache.getPacked(30, 30, DAY, 0);
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(2, cache.size());
+
+        cache.resetStats();
+        cache.getPacked(10, 10, DAY, 0);
+        cache.getPacked(30, 30, DAY, 0);
+        assertEquals(2, cache.getHitCount());
+        cache.getPacked(20, 20, DAY, 0);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void clear_removesAllEntries() {
+        SolarCache cache = new SolarCache(2);
+        cache.getPacked(10, 10, DAY, 0);
+        cache.clear();
+        assertEquals(0, cache.size());
+        cache.getPacked(10, 10, DAY, 0);
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void key_distinguishesEveryComponent() {
+        long key = SolarCache.key(39.9042, 116.4074, DAY, OFFSET_BEIJING);
+        assertNotEquals(key, SolarCache.key(39.9142, 116.4074, DAY, OFFSET_BEIJING));
+        assertNotEquals(key, SolarCache.key(39.9042, 116.4174, DAY, OFFSET_BEIJING));
+        assertNotEquals(key, SolarCache.key(39.9042, 116.4074, DAY + 1, OFFSET_BEIJING));
+        assertNotEquals(key, SolarCache.key(39.9042, 116.4074, DAY, OFFSET_BEIJING + 60));
+        // 极值不会相互覆盖
+        assertNotEquals(SolarCache.key(90, 180, DAY, 0), SolarCache.key(-90, -180, DAY, 0));
+        assertNotEquals(SolarCache.key(-90, 180, -1, -840), SolarCache.key(-90, 180, 0, -840));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void key_rejectsInvalidLatitude() {
+        SolarCache.key(90.5, 0, DAY, 0);
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.tianma8023.solar;
+
+import org.junit.Test;
+
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SolarCalculatorTest {
+
+    // NOAA Solar Calculator 的参考结果, 允许±2分钟误差
+    private static final int TOLERANCE_MINUTES = 2;
+
+    private static final Object[][] REFERENCE = {
+            // 地点, 纬度, 经度, 年, 月, 日, 时区, 日出, 日落
+            {"London", 51.5074, -0.1278, 2020, 6, 21, "Europe/London", "04:43", "21:21"},
+            {"London", 51.5074, -0.1278, 2020, 12, 21, "Europe/London", "08:03", "15:53"},
+            {"New York", 40.7128, -74.0060, 2020, 12, 21, "America/New_York", "07:16", "16:32"},
+            {"New York", 40.7128, -74.0060, 2020, 6, 20, "America/New_York", "05:25", "20:30"},
+            {"Sydney", -33.8688, 151.2093, 2020, 12, 21, "Australia/Sydney", "05:41", "20:05"},
+            {"Beijing", 39.9042, 116.4074, 2020, 6, 21, "Asia/Shanghai", "04:46", "19:46"},
+            {"Quito", -0.1807, -78.4678, 2020, 3, 20, "America/Guayaquil", "06:18", "18:24"},
+            // 日落在次日凌晨
+            {"Reykjavik", 64.1466, -21.9426, 2020, 6, 21, "Atlantic/Reykjavik", "02:55", "00:04"},
+    };
+
+    @Test
+    public void compute_matchesReferenceTable() {
+        for (Object[] row : REFERENCE) {
+            SolarDay day = SolarCalculator.compute((Double) row[1], (Double) row[2],
+                    (Integer) row[3], (Integer) row[4], (Integer) row[5], TimeZone.getTimeZone((String) row[6]));
+            String name = row[0] + " " + row[3] + "-" + row[4] + "-" + row[5];
+            assertEquals(name, SolarDay.TYPE_NORMAL, day.getType());
+            assertClose(name + " sunrise", (String) row[7], day.getSunrise().toMinuteOfDay());
+            assertClose(name + " sunset", (String) row[8], day.getSunset().toMinuteOfDay());
+        }
+    }
+
+    @Test
+    public void compute_detectsPolarDayAndNight() {
+        TimeZone oslo = TimeZone.getTimeZone("Europe/Oslo");
+        assertTrue(SolarCalculator.compute(69.6492, 18.9553, 2020, 6, 21, oslo).isPolarDay());
+        assertTrue(SolarCalculator.compute(69.6492, 18.9553, 2020, 12, 21, oslo).isPolarNight());
+    }
+
+    @Test
+    public void packedValues_roundTrip() {
+        int packed = SolarCalculator.pack(377, 1112);
+        assertEquals(377, SolarCalculator.sunriseOf(packed));
+        assertEquals(1112, SolarCalculator.sunsetOf(packed));
+        int polar = SolarCalculator.pack(SolarCalculator.POLAR_NIGHT, SolarCalculator.POLAR_NIGHT);
+        assertEquals(SolarCalculator.POLAR_NIGHT, SolarCalculator.sunriseOf(polar));
+        assertEquals(SolarCalculator.POLAR_NIGHT, SolarCalculator.sunsetOf(polar));
+    }
+
+    @Test
+    public void epochDay_matchesCivilCalendar() {
+        assertEquals(0, SolarCalculator.epochDay(1970, 1, 1));
+        assertEquals(18434, SolarCalculator.epochDay(2020, 6, 21));
+        assertEquals(-1, SolarCalculator.epochDay(1969, 12, 31));
+        assertEquals(11016, SolarCalculator.epochDay(2000, 2, 29));
+    }
+
+    private static void assertClose(String message, String expected, int actualMinutes) {
+        String[] parts = expected.split(":");
+        int expectedMinutes = Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
+        assertTrue(message + ": expected " + expected + " but was " + actualMinutes,
+                Math.abs(expectedMinutes - actualMinutes) <= TOLERANCE_MINUTES);
+    }
+}
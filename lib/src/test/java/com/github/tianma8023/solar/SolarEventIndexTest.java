@@ -0,0 +1,117 @@
+package com.github.tianma8023.solar;
+
+import org.junit.Test;
+
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SolarEventIndexTest {
+
+    private static final long MINUTE = 60 * 1000L;
+    private static final int START_DAY = SolarCalculator.epochDay(2020, 6, 21);
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    private static final TimeZone TOKYO = TimeZone.getTimeZone("Asia/Tokyo");
+
+    // 地点0: UTC 06:00-18:00, 06:10-18:10; 地点1: 东京 05:00-19:00, 第二天极夜
+    private static SolarEventIndex createIndex() {
+        short[] sunrise = {360, 370, 300, (short) SolarCalculator.POLAR_NIGHT};
+        short[] sunset = {1080, 1090, 1140, (short) SolarCalculator.POLAR_NIGHT};
+        return SolarEventIndex.fromTables(sunrise, sunset, new TimeZone[]{UTC, TOKYO}, START_DAY, 2);
+    }
+
+    private static long at(int day, int minuteOfDay) {
+        return ((long) (START_DAY + day) * 1440 + minuteOfDay) * MINUTE;
+    }
+
+    @Test
+    public void nextEvent_findsFirstEventStrictlyAfter() {
+        SolarEventIndex index = createIndex();
+        int position = index.nextEvent(0, at(0, 360));
+        assertEquals(at(0, 1080), index.getEventTimeMillis(position));
+        assertEquals(SolarEventIndex.EVENT_SUNSET, index.getEventType(position));
+
+        position = index.nextEvent(0, at(0, 360) - 1);
+        assertEquals(at(0, 360), index.getEventTimeMillis(position));
+        assertEquals(SolarEventIndex.EVENT_SUNRISE, index.getEventType(position));
+
+        assertEquals(-1, index.nextEvent(0, at(1, 1090)));
+        assertEquals(index.getEventStart(0), index.nextEvent(0, Long.MIN_VALUE));
+    }
+
+    @Test
+    public void previousEvent_includesEventAtInstant() {
+        SolarEventIndex index = createIndex();
+        assertEquals(at(0, 1080), index.getEventTimeMillis(index.previousEvent(0, at(0, 1080))));
+        assertEquals(-1, index.previousEvent(0, at(0, 359)));
+    }
+
+    @Test
+    public void fromTables_convertsLocalTimesAndSkipsPolarDays() {
+        SolarEventIndex index = createIndex();
+        assertEquals(2, index.getEventEnd(1) - index.getEventStart(1));
+        // 东京为UTC+9
+        int sunrise = index.getEventStart(1);
+        assertEquals(at(0, 300 - 9 * 60), index.getEventTimeMillis(sunrise));
+        assertEquals(at(0, 1140 - 9 * 60), index.getEventTimeMillis(sunrise + 1));
+    }
+
+    @Test
+    public void fromPackedTable_matchesShortTables() {
+        double[] latitudes = {39.9042, -33.8688, 69.6492};
+        double[] longitudes = {116.4074, 151.2093, 18.9553};
+        TimeZone[] zones = {TimeZone.getTimeZone("Asia/Shanghai"), TimeZone.getTimeZone("Australia/Sydney"),
+                TimeZone.getTimeZone("Europe/Oslo")};
+        int dayCount = 366;
+        short[] sunrise = new short[latitudes.length * dayCount];
+        short[] sunset = new short[latitudes.length * dayCount];
+        int[] packed = new int[latitudes.length * dayCount];
+        SolarTables.fill(latitudes, longitudes, zones, START_DAY, dayCount, sunrise, sunset);
+        SolarTables.fillPacked(latitudes, longitudes, zones, START_DAY, dayCount, packed);
+
+        SolarEventIndex fromTables = SolarEventIndex.fromTables(sunrise, sunset, zones, START_DAY, dayCount);
+        SolarEventIndex fromPacked = SolarEventIndex.fromPackedTable(packed, zones, START_DAY, dayCount);
+        for (int location = 0; location <= latitudes.length; location++) {
+            assertEquals(fromTables.getEventStart(location), fromPacked.getEventStart(location));
+        }
+        for (int i = 0; i < fromTables.getEventEnd(latitudes.length - 1); i++) {
+            assertEquals(fromTables.getEventTimeMillis(i), fromPacked.getEventTimeMillis(i));
+        }
+        // 特罗姆瑟有极昼和极夜
+        assertTrue(fromTables.getEventEnd(2) - fromTables.getEventStart(2) < dayCount * 2);
+    }
+
+    @Test
+    public void cursor_iteratesAllLocationsInTimeOrder() {
+        SolarEventIndex index = createIndex();
+        SolarEventIndex.Cursor cursor = index.cursor(Long.MIN_VALUE);
+        long[] expected = {at(0, 300 - 540), at(0, 360), at(0, 1140 - 540), at(0, 1080), at(1, 370), at(1, 1090)};
+        int[] locations = {1, 0, 1, 0, 0, 0};
+        int rise = SolarEventIndex.EVENT_SUNRISE;
+        int set = SolarEventIndex.EVENT_SUNSET;
+        int[] types = {rise, rise, set, set, rise, set};
+        for (int i = 0; i < expected.length; i++) {
+            assertTrue(cursor.hasEvent());
+            assertEquals(expected[i], cursor.getTimeMillis());
+            assertEquals(locations[i], cursor.getLocation());
+            assertEquals(types[i], cursor.getType());
+            cursor.advance();
+        }
+        assertFalse(cursor.hasEvent());
+    }
+
+    @Test
+    public void cursor_seeksForwardAndBackward() {
+        SolarEventIndex index = createIndex();
+        SolarEventIndex.Cursor cursor = index.cursor(at(0, 0));
+        cursor.seek(at(0, 1080));
+        assertEquals(at(1, 370), cursor.getTimeMillis());
+        cursor.seek(at(0, 360));
+        assertEquals(at(0, 600), cursor.getTimeMillis());
+        assertEquals(1, cursor.getLocation());
+        cursor.seek(at(1, 1090));
+        assertFalse(cursor.hasEvent());
+    }
+}
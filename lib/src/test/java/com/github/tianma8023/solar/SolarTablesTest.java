@@ -0,0 +1,62 @@
+package com.github.tianma8023.solar;
+
+import org.junit.Test;
+
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SolarTablesTest {
+
+    private static final double[] LATITUDES = {51.5074, 40.7128, -33.8688, 39.9042, 69.6492, -0.1807};
+    private static final double[] LONGITUDES = {-0.1278, -74.0060, 151.2093, 116.4074, 18.9553, -78.4678};
+    private static final TimeZone[] ZONES = {
+            TimeZone.getTimeZone("Europe/London"),
+            TimeZone.getTimeZone("America/New_York"),
+            TimeZone.getTimeZone("Australia/Sydney"),
+            TimeZone.getTimeZone("Asia/Shanghai"),
+            TimeZone.getTimeZone("Europe/Oslo"),
+            TimeZone.getTimeZone("America/Guayaquil"),
+    };
+    private static final int START_EPOCH_DAY = SolarCalculator.epochDay(2020, 1, 1);
+    private static final int DAY_COUNT = 366;
+
+    @Test
+    public void fill_matchesSingleComputation() {
+        int size = LATITUDES.length * DAY_COUNT;
+        short[] sunrise = new short[size];
+        short[] sunset = new short[size];
+        int[] packed = new int[size];
+        SolarTables.fill(LATITUDES, LONGITUDES, ZONES, START_EPOCH_DAY, DAY_COUNT, sunrise, sunset);
+        SolarTables.fillPacked(LATITUDES, LONGITUDES, ZONES, START_EPOCH_DAY, DAY_COUNT, packed);
+
+        for (int i = 0; i < LATITUDES.length; i++) {
+            for (int d = 0; d < DAY_COUNT; d++) {
+                int epochDay = START_EPOCH_DAY + d;
+                int expected = SolarCalculator.computePacked(LATITUDES[i], LONGITUDES[i], epochDay,
+                        SolarCalculator.utcOffsetMinutes(ZONES[i], epochDay));
+                int index = i * DAY_COUNT + d;
+                assertEquals(sunrise[index], SolarCalculator.sunriseOf(packed[index]));
+                assertEquals(sunset[index], SolarCalculator.sunsetOf(packed[index]));
+                assertClose(SolarCalculator.sunriseOf(expected), sunrise[index]);
+                assertClose(SolarCalculator.sunsetOf(expected), sunset[index]);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fill_rejectsSmallTables() {
+        SolarTables.fill(LATITUDES, LONGITUDES, ZONES, START_EPOCH_DAY, DAY_COUNT, new short[1], new short[1]);
+    }
+
+    private static void assertClose(int expected, int actual) {
+        if (expected < 0) {
+            assertEquals(expected, actual);
+            return;
+        }
+        int diff = Math.abs(expected - actual);
+        assertTrue("expected " + expected + " but was " + actual,
+                Math.min(diff, SolarCalculator.MINUTES_PER_DAY - diff) <= 1);
+    }
+}
@@ -0,0 +1,36 @@
+package com.github.tianma8023.solar;
+
+import org.junit.Test;
+
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TwilightDayTest {
+
+    @Test
+    public void phases_areOrderedAroundSunriseAndSunset() {
+        TwilightDay day = TwilightDay.compute(51.5074, -0.1278, 2020, 12, 21, TimeZone.getTimeZone("Europe/London"));
+        int sunrise = day.getStartMinute(TwilightDay.PHASE_DAY);
+        int sunset = day.getEndMinute(TwilightDay.PHASE_DAY);
+        for (int phase = TwilightDay.PHASE_CIVIL; phase <= TwilightDay.PHASE_ASTRONOMICAL; phase++) {
+            assertTrue(day.getStartMinute(phase) < day.getStartMinute(phase - 1));
+            assertTrue(day.getEndMinute(phase) > day.getEndMinute(phase - 1));
+            assertTrue(day.getMorningMinutes(phase) > day.getMorningMinutes(phase - 1));
+        }
+        assertEquals(TwilightDay.PHASE_DAY, day.phaseAt(12 * 60));
+        assertEquals(TwilightDay.PHASE_CIVIL, day.phaseAt(sunrise - 1));
+        assertEquals(TwilightDay.PHASE_CIVIL, day.phaseAt(sunset + 1));
+        assertEquals(TwilightDay.PHASE_NIGHT, day.phaseAt(0));
+    }
+
+    @Test
+    public void polarNight_hasTwilightWithoutDay() {
+        // 特罗姆瑟冬至: 极夜, 但中午仍有民用晨昏蒙影
+        TwilightDay day = TwilightDay.compute(69.6492, 18.9553, 2020, 12, 21, TimeZone.getTimeZone("Europe/Oslo"));
+        assertEquals(SolarCalculator.POLAR_NIGHT, day.getStartMinute(TwilightDay.PHASE_DAY));
+        assertEquals(TwilightDay.PHASE_CIVIL, day.phaseAt(12 * 60));
+        assertEquals(0, day.getMorningMinutes(TwilightDay.PHASE_CIVIL));
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.tianma8023.ssv;
+
+import com.github.tianma8023.model.Time;
+import com.github.tianma8023.model.TimeOfDay;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class DefaultLabelFormatterTest {
+
+    private Locale mDefaultLocale;
+
+    @Before
+    public void setUp() {
+        mDefaultLocale = Locale.getDefault();
+    }
+
+    @After
+    public void tearDown() {
+        Locale.setDefault(mDefaultLocale);
+    }
+
+    @Test
+    public void bufferFormat_matchesStringFormat() {
+        assertMatchesStringFormat(Locale.US);
+    }
+
+    @Test
+    public void bufferFormat_usesLocalizedDigits() {
+        Locale arabic = new Locale("ar", "EG");
+        Locale.setDefault(arabic);
+        // 阿拉伯语(埃及)使用阿拉伯-印度数字
+        assertNotEquals("6:5", new DefaultLabelFormatter().formatTime(new Time(6, 5)));
+        assertMatchesStringFormat(arabic);
+    }
+
+    @Test
+    public void bufferFormat_followsLocaleChange() {
+        DefaultLabelFormatter formatter = new DefaultLabelFormatter();
+        StringBuilder out = new StringBuilder();
+        Locale.setDefault(new Locale("ar", "EG"));
+        formatter.formatTime(TimeOfDay.of(18, 32), out);
+
+        Locale.setDefault(Locale.US);
+        out.setLength(0);
+        formatter.formatTime(TimeOfDay.of(18, 32), out);
+        assertEquals("18:32", out.toString());
+    }
+
+    private static void assertMatchesStringFormat(Locale locale) {
+        Locale.setDefault(locale);
+        DefaultLabelFormatter formatter = new DefaultLabelFormatter();
+        StringBuilder out = new StringBuilder();
+        for (int minuteOfDay = 0; minuteOfDay < TimeOfDay.MINUTES_PER_DAY; minuteOfDay++) {
+            TimeOfDay time = TimeOfDay.ofMinuteOfDay(minuteOfDay);
+            out.setLength(0);
+            formatter.formatTime(time, out);
+            assertEquals(formatter.formatTime(new Time(time)), out.toString());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.tianma8023.ssv;
+
+import com.github.tianma8023.model.TimeOfDay;
+import com.github.tianma8023.solar.SolarCalculator;
+import com.github.tianma8023.solar.SolarDay;
+
+import org.junit.Test;
+
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SunTimingTest {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    @Test
+    public void sunsetAfterMidnight_isNotPolarNight() {
+        // 雷克雅未克夏至: 日出 02:55, 日落次日 00:04
+        SolarDay day = SolarCalculator.compute(64.1466, -21.9426, 2020, 6, 21,
+                TimeZone.getTimeZone("Atlantic/Reykjavik"));
+        TimeOfDay sunrise = day.getSunrise();
+        TimeOfDay sunset = day.getSunset();
+        assertEquals(SolarDay.TYPE_NORMAL, day.getType());
+        assertTrue(sunset.isBefore(sunrise));
+
+        float noon = SunTiming.ratioAt(sunrise, sunset, 13 * HOUR);
+        assertTrue(noon > 0.45f && noon < 0.55f);
+        // 0点到日落之间接近终点, 日落之后到日出之前停留在起点
+        assertTrue(SunTiming.ratioAt(sunrise, sunset, 0) > 0.99f);
+        assertEquals(0f, SunTiming.ratioAt(sunrise, sunset, 10 * 60 * 1000L), 0f);
+        assertEquals(0f, SunTiming.ratioAt(sunrise, sunset, HOUR), 0f);
+
+        // 白昼中按像素更新, 夜间等到日出
+        long pixelDelay = SunTiming.liveTickDelay(sunrise, sunset, 13 * HOUR, 300);
+        assertTrue(pixelDelay < 2 * 60 * 1000L);
+        assertEquals(pixelDelay, SunTiming.liveTickDelay(sunrise, sunset, 0, 300));
+        assertEquals(sunrise.toSecondOfDay() * 1000L - HOUR, SunTiming.liveTickDelay(sunrise, sunset, HOUR, 300));
+    }
+
+    @Test
+    public void equalSunriseAndSunset_isPolarNight() {
+        TimeOfDay midnight = TimeOfDay.MIDNIGHT;
+        assertEquals(0f, SunTiming.ratioAt(midnight, midnight, 12 * HOUR), 0f);
+        assertEquals(12 * HOUR, SunTiming.liveTickDelay(midnight, midnight, 12 * HOUR, 300));
+    }
+}
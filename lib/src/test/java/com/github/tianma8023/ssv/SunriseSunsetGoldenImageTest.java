@@ -0,0 +1,189 @@
+package com.github.tianma8023.ssv;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.view.View;
+
+import com.github.tianma8023.model.TimeOfDay;
+import com.github.tianma8023.solar.SolarCalculator;
+import com.github.tianma8023.solar.TwilightDay;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SunriseSunsetView 的绘制结果与 src/test/resources/golden 中的基准图片比较.
+ * <p>
+ * 修改绘制效果后使用 {@code ./gradlew :lib:testDebugUnitTest -PrecordGoldens} 重新生成基准图片,
+ * 检查无误后一并提交. 缺少基准图片或与基准不一致时测试失败, 实际结果写入 build/outputs/golden.
+ * <p>
+ * 基准图片在 API 29 下生成, 更低版本缺少 HardwareRenderer, Robolectric 的原生绘图会直接终止JVM
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 29)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class SunriseSunsetGoldenImageTest {
+
+    private static final int VIEW_WIDTH = 400;
+    // 抗锯齿边缘在不同平台上可能略有差异, 允许少量像素的各通道存在小偏差
+    private static final int CHANNEL_TOLERANCE = 8;
+    private static final float MAX_DIFFERENT_PIXEL_FRACTION = 0.002f;
+
+    private static final boolean RECORD = Boolean.getBoolean("ssv.recordGoldens");
+    private static final File GOLDEN_DIR = new File("src/test/resources/golden");
+    private static final File OUTPUT_DIR = new File("build/outputs/golden");
+
+    @Test
+    public void defaultStyle_beforeSunrise() throws IOException {
+        verify("default_ratio_0", SunriseSunsetStyle.DEFAULT, 0f);
+    }
+
+    @Test
+    public void defaultStyle_noon() throws IOException {
+        verify("default_ratio_0_5", SunriseSunsetStyle.DEFAULT, 0.5f);
+    }
+
+    @Test
+    public void defaultStyle_afterSunset() throws IOException {
+        verify("default_ratio_1", SunriseSunsetStyle.DEFAULT, 1f);
+    }
+
+    @Test
+    public void dashedTrack_strokedSun() throws IOException {
+        verify("dashed_stroke_sun_ratio_0_3", SunriseSunsetStyle.DEFAULT.buildUpon()
+                .setTrackMode(SunriseSunsetStyle.TRACK_MODE_DASHED)
+                .setSunPaintStyle(Paint.Style.STROKE)
+                .setSunColor(Color.RED)
+                .build(), 0.3f);
+    }
+
+    @Test
+    public void dottedTrack_largeSun() throws IOException {
+        verify("dotted_large_sun_ratio_0_8", SunriseSunsetStyle.DEFAULT.buildUpon()
+                .setTrackMode(SunriseSunsetStyle.TRACK_MODE_DOTTED)
+                .setTrackWidth(6)
+                .setSunRadius(32)
+                .build(), 0.8f);
+    }
+
+    @Test
+    public void skyAndTwilightBands() throws IOException {
+        SunriseSunsetView view = createView(SunriseSunsetStyle.DEFAULT.buildUpon()
+                .setTwilightBandWidth(12)
+                .setSkyColors(Color.parseColor("#4FC3F7"), Color.parseColor("#0D1B2A"))
+                .build(), 0.75f);
+        view.setTwilight(TwilightDay.fromPacked(
+                SolarCalculator.pack(6 * 60 + 17, 18 * 60 + 32),
+                SolarCalculator.pack(5 * 60 + 47, 19 * 60 + 2),
+                SolarCalculator.pack(5 * 60 + 12, 19 * 60 + 37),
+                SolarCalculator.pack(4 * 60 + 37, 20 * 60 + 12)));
+        verify("sky_twilight_ratio_0_75", view);
+    }
+
+    private void verify(String name, SunriseSunsetStyle style, float ratio) throws IOException {
+        verify(name, createView(style, ratio));
+    }
+
+    private static SunriseSunsetView createView(SunriseSunsetStyle style, float ratio) {
+        SunriseSunsetView view = new SunriseSunsetView(RuntimeEnvironment.getApplication());
+        view.setStyle(style);
+        view.setSunriseTimeOfDay(TimeOfDay.of(6, 17));
+        view.setSunsetTimeOfDay(TimeOfDay.of(18, 32));
+        view.measure(View.MeasureSpec.makeMeasureSpec(VIEW_WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+        view.setRatio(ratio);
+        return view;
+    }
+
+    private void verify(String name, SunriseSunsetView view) throws IOException {
+        Bitmap actual = Bitmap.createBitmap(view.getMeasuredWidth(), view.getMeasuredHeight(), Bitmap.Config.ARGB_8888);
+        view.draw(new Canvas(actual));
+
+        if (RECORD) {
+            write(actual, new File(GOLDEN_DIR, name + ".png"));
+            return;
+        }
+        Bitmap expected = readGolden(name);
+        if (expected == null) {
+            write(actual, new File(OUTPUT_DIR, name + ".png"));
+        }
+        assertNotNull("No golden image for " + name + ", actual image written to " + OUTPUT_DIR
+                + ", record with -PrecordGoldens", expected);
+
+        assertTrue(name + ": size " + actual.getWidth() + "x" + actual.getHeight()
+                        + " != " + expected.getWidth() + "x" + expected.getHeight(),
+                actual.getWidth() == expected.getWidth() && actual.getHeight() == expected.getHeight());
+        int different = countDifferentPixels(expected, actual);
+        int allowed = (int) (actual.getWidth() * actual.getHeight() * MAX_DIFFERENT_PIXEL_FRACTION);
+        if (different > allowed) {
+            write(actual, new File(OUTPUT_DIR, name + ".png"));
+        }
+        assertTrue(name + ": " + different + " pixels differ (allowed " + allowed + "), actual image written to "
+                + OUTPUT_DIR, different <= allowed);
+    }
+
+    private static int countDifferentPixels(Bitmap expected, Bitmap actual) {
+        int width = actual.getWidth();
+        int height = actual.getHeight();
+        int[] expectedPixels = new int[width * height];
+        int[] actualPixels = new int[width * height];
+        expected.getPixels(expectedPixels, 0, width, 0, 0, width, height);
+        actual.getPixels(actualPixels, 0, width, 0, 0, width, height);
+        int different = 0;
+        for (int i = 0; i < expectedPixels.length; i++) {
+            int e = expectedPixels[i];
+            int a = actualPixels[i];
+            if (Math.abs(Color.alpha(e) - Color.alpha(a)) > CHANNEL_TOLERANCE
+                    || Math.abs(Color.red(e) - Color.red(a)) > CHANNEL_TOLERANCE
+                    || Math.abs(Color.green(e) - Color.green(a)) > CHANNEL_TOLERANCE
+                    || Math.abs(Color.blue(e) - Color.blue(a)) > CHANNEL_TOLERANCE) {
+                different++;
+            }
+        }
+        return different;
+    }
+
+    private static Bitmap readGolden(String name) throws IOException {
+        InputStream in = SunriseSunsetGoldenImageTest.class.getResourceAsStream("/golden/" + name + ".png");
+        if (in == null) {
+            return null;
+        }
+        try {
+            Bitmap bitmap = BitmapFactory.decodeStream(in);
+            assertNotNull("Cannot decode golden image " + name, bitmap);
+            return bitmap;
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void write(Bitmap bitmap, File file) throws IOException {
+        File dir = file.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        OutputStream out = new FileOutputStream(file);
+        try {
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.github.tianma8023.ssv;
+
+import android.graphics.Bitmap;
+
+import com.github.tianma8023.formatter.SimpleSunriseSunsetLabelFormatter;
+import com.github.tianma8023.model.Time;
+import com.github.tianma8023.model.TimeOfDay;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SunriseSunsetRenderer 的JVM测试
+ * <p>
+ * Robolectric 的原生绘图需要 API 29 及以上, 更低版本缺少 HardwareRenderer, 加载时会直接终止JVM
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 29)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class SunriseSunsetRendererTest {
+
+    private static final int WIDTH = 400;
+    private static final int HEIGHT = 220;
+    private static final int THREADS = 4;
+    private static final int IMAGES_PER_THREAD = 20;
+
+    @Test
+    public void dashedTrack_pointsLieOnTrack() {
+        SunriseSunsetRenderer renderer = new SunriseSunsetRenderer();
+        renderer.setStyle(SunriseSunsetStyle.DEFAULT.buildUpon()
+                .setTrackMode(SunriseSunsetStyle.TRACK_MODE_DASHED)
+                .setTrackDash(15, 15)
+                .build());
+        renderer.layout(640, 0, 0, 0, 0);
+        renderer.updateTrackPoints();
+
+        float[] points = renderer.getTrackPoints();
+        int count = renderer.getTrackPointCount();
+        float radius = renderer.getTrackRadius();
+        float centerX = renderer.getGeometry().sunX(0) + radius;
+        float centerY = renderer.getTrackBottom();
+        // 每条虚线至少一条弦(4个float), 半圆周长约 942px, 每30px一段
+        assertTrue(count >= 4 * (int) (Math.PI * radius / 30));
+        for (int i = 0; i < count; i += 2) {
+            double distance = Math.hypot(points[i] - centerX, points[i + 1] - centerY);
+            assertEquals(radius, distance, 0.01);
+        }
+    }
+
+    @Test
+    public void bufferFormatter_onlyForExplicitImplementations() {
+        DefaultLabelFormatter defaultFormatter = new DefaultLabelFormatter();
+        assertSame(defaultFormatter, SunriseSunsetRenderer.bufferFormatterOf(defaultFormatter));
+        assertNull(SunriseSunsetRenderer.bufferFormatterOf(new SimpleSunriseSunsetLabelFormatter()));
+
+        // 只重写了 formatTime(Time) 的子类必须走 String 路径, 否则重写不生效
+        SimpleSunriseSunsetLabelFormatter custom = new SimpleSunriseSunsetLabelFormatter() {
+            @Override
+            public String formatTime(Time time) {
+                return "T" + time.hour;
+            }
+        };
+        assertNull(SunriseSunsetRenderer.bufferFormatterOf(custom));
+    }
+
+    @Test
+    public void render_isThreadSafe() throws Exception {
+        final SunriseSunsetState state = new SunriseSunsetState(TimeOfDay.of(6, 17), TimeOfDay.of(18, 32), 0.4f,
+                SunriseSunsetStyle.DEFAULT);
+        Bitmap expected = SunriseSunsetRenderer.renderBitmap(WIDTH, HEIGHT, state);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Bitmap>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS * IMAGES_PER_THREAD; i++) {
+                // 交替绘制不同的状态, 确保线程内复用的绘制器不会残留上一次的状态
+                final SunriseSunsetState current = i % 2 == 0 ? state
+                        : new SunriseSunsetState(TimeOfDay.of(4, 50), TimeOfDay.of(21, 10), 0.9f,
+                        SunriseSunsetStyle.DEFAULT.buildUpon().setSunRadius(30).build());
+                futures.add(executor.submit(new Callable<Bitmap>() {
+                    @Override
+                    public Bitmap call() {
+                        return SunriseSunsetRenderer.renderBitmap(WIDTH, HEIGHT, current);
+                    }
+                }));
+            }
+            for (int i = 0; i < futures.size(); i += 2) {
+                assertTrue("image " + i, expected.sameAs(futures.get(i).get()));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.tianma8023.ssv;
+
+import android.graphics.SurfaceTexture;
+
+import com.github.tianma8023.model.TimeOfDay;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * SunriseSunsetTextureView 主线程一侧状态的JVM测试. View 未 attach, 渲染线程不会绘制, 动画停留在保存的进度
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 29)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class SunriseSunsetTextureViewTest {
+
+    private static final int VIEW_WIDTH = 640;
+    private static final int VIEW_HEIGHT = 400;
+
+    private static final SunClock NOON_UTC = new SunClock() {
+        @Override
+        public long currentTimeMillis() {
+            return TimeUnit.HOURS.toMillis(12);
+        }
+
+        @Override
+        public TimeZone getTimeZone() {
+            return TimeZone.getTimeZone("UTC");
+        }
+    };
+
+    private SunriseSunsetTextureView mView;
+
+    @Before
+    public void setUp() {
+        mView = new SunriseSunsetTextureView(RuntimeEnvironment.getApplication());
+        mView.setSunriseTimeOfDay(TimeOfDay.of(6, 0));
+        mView.setSunsetTimeOfDay(TimeOfDay.of(18, 0));
+        mView.setClock(NOON_UTC);
+    }
+
+    @Test
+    public void startAnimate_beforeSurfaceAvailable_isReplayed() {
+        mView.startAnimate();
+        SunriseSunsetTextureView.AnimationProgress pending = mView.getPendingAnimation();
+        assertNotNull(pending);
+        assertEquals(0f, pending.fromRatio, 0f);
+        assertEquals(0.5f, pending.toRatio, 0.001f);
+
+        SurfaceTexture surface = new SurfaceTexture(0);
+        mView.onSurfaceTextureAvailable(surface, VIEW_WIDTH, VIEW_HEIGHT);
+        assertNull(mView.getPendingAnimation());
+
+        // 渲染线程销毁时动画尚未完成, 保存起止比率及进度供下次恢复
+        mView.onSurfaceTextureDestroyed(surface);
+        SunriseSunsetTextureView.AnimationProgress saved = mView.getPendingAnimation();
+        assertNotNull(saved);
+        assertEquals(0f, saved.fromRatio, 0f);
+        assertEquals(0.5f, saved.toRatio, 0.001f);
+        assertEquals(0L, saved.elapsedNanos);
+        assertEquals(0f, mView.getRatio(), 0f);
+
+        SurfaceTexture recreated = new SurfaceTexture(0);
+        mView.onSurfaceTextureAvailable(recreated, VIEW_WIDTH, VIEW_HEIGHT);
+        assertNull(mView.getPendingAnimation());
+        mView.onSurfaceTextureDestroyed(recreated);
+        assertNotNull(mView.getPendingAnimation());
+    }
+
+    @Test
+    public void bindWithAnimation_beforeSurfaceAvailable_isPending() {
+        mView.bind(new SunriseSunsetState(TimeOfDay.of(6, 0), TimeOfDay.of(18, 0), 0.75f, null), true);
+        SunriseSunsetTextureView.AnimationProgress pending = mView.getPendingAnimation();
+        assertNotNull(pending);
+        assertEquals(0.75f, pending.toRatio, 0f);
+        assertEquals(0f, mView.getRatio(), 0f);
+
+        mView.bind(new SunriseSunsetState(TimeOfDay.of(6, 0), TimeOfDay.of(18, 0), 0.25f, null));
+        assertNull(mView.getPendingAnimation());
+        assertEquals(0.25f, mView.getRatio(), 0f);
+    }
+
+    @Test
+    public void setRatioAndCancel_dropPendingAnimation() {
+        mView.startAnimate();
+        mView.setRatio(0.3f);
+        assertNull(mView.getPendingAnimation());
+
+        SurfaceTexture surface = new SurfaceTexture(0);
+        mView.onSurfaceTextureAvailable(surface, VIEW_WIDTH, VIEW_HEIGHT);
+        mView.onSurfaceTextureDestroyed(surface);
+        assertNull(mView.getPendingAnimation());
+        assertEquals(0.3f, mView.getRatio(), 0f);
+
+        mView.startAnimate();
+        mView.cancelAnimate();
+        assertNull(mView.getPendingAnimation());
+    }
+}
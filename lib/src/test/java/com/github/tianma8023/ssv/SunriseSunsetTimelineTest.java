@@ -0,0 +1,48 @@
+package com.github.tianma8023.ssv;
+
+import com.github.tianma8023.solar.SolarCalculator;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class SunriseSunsetTimelineTest {
+
+    @Test
+    public void dayIndex_interpolatesAndClamps() {
+        SunriseSunsetTimeline timeline = new SunriseSunsetTimeline(
+                new short[]{360, 340, SolarCalculator.POLAR_NIGHT},
+                new short[]{1080, 1100, SolarCalculator.POLAR_NIGHT});
+        assertEquals(3, timeline.getDayCount());
+        assertEquals(350f, timeline.sunriseMinuteAt(0.5f), 0f);
+        assertEquals(1090f, timeline.sunsetMinuteAt(0.5f), 0f);
+        assertEquals(360f, timeline.sunriseMinuteAt(-1f), 0f);
+        assertEquals(0f, timeline.sunsetMinuteAt(5f), 0f);
+        // 12:00 在 06:00 - 18:00 的正中
+        assertEquals(0.5f, timeline.ratioAt(0, 12 * 60 * 60 * 1000L), 1e-6f);
+        // 极夜时太阳停留在起点
+        assertEquals(0f, timeline.ratioAt(2, 12 * 60 * 60 * 1000L), 0f);
+    }
+
+    @Test
+    public void sunsetAfterMidnight_isNextDay() {
+        // 日出 02:55, 日落次日 00:04; 第二天日落 23:58
+        SunriseSunsetTimeline timeline = new SunriseSunsetTimeline(
+                new short[]{175, 177}, new short[]{4, 1438});
+        assertEquals(4f, timeline.sunsetMinuteAt(0), 0f);
+        // 按 1444 与 1438 插值, 不会插值到白天
+        assertEquals(2.8f, timeline.sunsetMinuteAt(0.2f), 1e-3f);
+        assertEquals(1f, timeline.sunsetMinuteAt(0.5f), 1e-3f);
+        assertEquals(1439.5f, timeline.sunsetMinuteAt(0.75f), 1e-3f);
+        // 0点到日落之间仍是前一天的白昼, 日落之后到日出之前停留在起点
+        assertEquals(0.99f, timeline.ratioAt(0, 0), 0.01f);
+        assertEquals(0f, timeline.ratioAt(0, 10 * 60 * 1000L), 0f);
+        assertEquals(0f, timeline.ratioAt(0, 60 * 60 * 1000L), 0f);
+        assertEquals(0.5f, timeline.ratioAt(0, (175 * 60 + (1444 - 175) * 30) * 1000L), 1e-4f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsOutOfRangeMinutes() {
+        new SunriseSunsetTimeline(new short[]{-5}, new short[]{600});
+    }
+}
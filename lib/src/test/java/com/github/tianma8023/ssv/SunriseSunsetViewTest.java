@@ -0,0 +1,450 @@
+package com.github.tianma8023.ssv;
+
+import android.app.Activity;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.view.View;
+
+import com.github.tianma8023.formatter.SimpleSunriseSunsetLabelFormatter;
+import com.github.tianma8023.model.Time;
+import com.github.tianma8023.model.TimeOfDay;
+import com.github.tianma8023.solar.SolarCalculator;
+import com.github.tianma8023.solar.SolarEventIndex;
+import com.github.tianma8023.solar.TwilightDay;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+import org.robolectric.shadows.ShadowChoreographer;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SunriseSunsetView 绘制相关的JVM测试
+ * <p>
+ * Robolectric 的原生绘图需要 API 29 及以上, 更低版本缺少 HardwareRenderer, 加载时会直接终止JVM
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 29)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class SunriseSunsetViewTest {
+
+    private static final int VIEW_WIDTH = 640;
+    private static final int WARM_UP_FRAMES = 200;
+    private static final int MEASURED_FRAMES = 1000;
+    private static final int FRAME_MS = 16;
+    // 366天, 每天4帧
+    private static final int SCRUB_FRAMES = 366 * 4;
+
+    private static final SunClock NOON_UTC = new SunClock() {
+        @Override
+        public long currentTimeMillis() {
+            return TimeUnit.HOURS.toMillis(12);
+        }
+
+        @Override
+        public TimeZone getTimeZone() {
+            return TimeZone.getTimeZone("UTC");
+        }
+    };
+
+    private SunriseSunsetView mView;
+    private Canvas mCanvas;
+
+    @Before
+    public void setUp() {
+        // 默认情况下 Robolectric 在一次 idle 中连续执行所有帧, 动画会立即结束
+        ShadowChoreographer.setPaused(true);
+        ShadowChoreographer.setFrameDelay(Duration.ofMillis(FRAME_MS));
+        setUpView(new SunriseSunsetView(RuntimeEnvironment.getApplication()));
+    }
+
+    private void setUpView(SunriseSunsetView view) {
+        mView = view;
+        mView.setSunriseTime(new Time(6, 17));
+        mView.setSunsetTime(new Time(18, 32));
+        mView.measure(View.MeasureSpec.makeMeasureSpec(VIEW_WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        mView.layout(0, 0, mView.getMeasuredWidth(), mView.getMeasuredHeight());
+        Bitmap bitmap = Bitmap.createBitmap(mView.getMeasuredWidth(), mView.getMeasuredHeight(), Bitmap.Config.ARGB_8888);
+        mCanvas = new Canvas(bitmap);
+    }
+
+    @Test
+    public void onDraw_doesNotAllocateAfterWarmUp() {
+        for (int i = 0; i < WARM_UP_FRAMES; i++) {
+            drawFrame(i);
+        }
+
+        long baseline = allocatedBytes();
+        baseline = allocatedBytes() - baseline;
+
+        long start = allocatedBytes();
+        for (int i = 0; i < MEASURED_FRAMES; i++) {
+            drawFrame(i);
+        }
+        long allocated = allocatedBytes() - start - baseline;
+        // 允许平均每帧不足1字节的误差(如测量期间 JIT 编译的偶发分配), 每帧分配任何对象都会超出
+        assertEquals("bytes allocated per onDraw", 0, allocated / MEASURED_FRAMES);
+    }
+
+    @Test
+    public void setRatio_suppressesSubPixelMoves() {
+        mView.setRatio(0.5f);
+        mView.resetInvalidateCounts();
+
+        // 半径约300px, 1e-5 的比率变化远小于1像素
+        mView.setRatio(0.5f + 1e-5f);
+        assertEquals(1, mView.getSuppressedInvalidateCount());
+        assertEquals(0, mView.getPartialInvalidateCount());
+
+        mView.setRatio(0.6f);
+        assertEquals(1, mView.getSuppressedInvalidateCount());
+        assertEquals(1, mView.getPartialInvalidateCount());
+    }
+
+    @Test
+    public void bind_requestsLayoutOnlyWhenSizeIsAffected() {
+        SunriseSunsetStyle style = mView.getStyle();
+        SunriseSunsetState state = new SunriseSunsetState(TimeOfDay.of(5, 40), TimeOfDay.of(19, 5), 0.3f,
+                style.buildUpon().setTrackColor(Color.RED).build());
+        mView.bind(state);
+        assertFalse(mView.isLayoutRequested());
+        assertEquals(state, mView.getState());
+
+        mView.bind(state.withRatio(0.7f));
+        assertFalse(mView.isLayoutRequested());
+        assertEquals(0.7f, mView.getRatio(), 0f);
+
+        // 宽度固定时太阳半径变化不影响View尺寸, 就地更新几何信息
+        mView.bind(new SunriseSunsetState(state.getSunrise(), state.getSunset(), 0.7f,
+                style.buildUpon().setSunRadius(style.getSunRadius() * 2).build()));
+        assertFalse(mView.isLayoutRequested());
+    }
+
+    @Test
+    public void setTimesAndFormatter_invalidateOnlyOnChange() {
+        mView.setDrawMetricsListener(new DrawMetricsListener() {
+            @Override
+            public void onFrameDrawn(SunriseSunsetView view, DrawMetrics metrics) {
+            }
+        });
+        DrawMetrics metrics = mView.getDrawMetrics();
+
+        mView.setSunriseTimeOfDay(TimeOfDay.of(6, 17));
+        mView.setSunsetTimeOfDay(TimeOfDay.of(18, 32));
+        mView.setLabelFormatter(mView.getLabelFormatter());
+        assertEquals(0, metrics.getFullInvalidateCount());
+
+        mView.setSunriseTimeOfDay(TimeOfDay.of(5, 40));
+        mView.setSunsetTimeOfDay(TimeOfDay.of(19, 5));
+        mView.setLabelFormatter(new SimpleSunriseSunsetLabelFormatter());
+        assertEquals(3, metrics.getFullInvalidateCount());
+    }
+
+    @Test
+    public void setStyle_requestsLayoutForWrapContentRadiusChange() {
+        mView.measure(View.MeasureSpec.makeMeasureSpec(VIEW_WIDTH * 2, View.MeasureSpec.AT_MOST),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        mView.layout(0, 0, mView.getMeasuredWidth(), mView.getMeasuredHeight());
+
+        mView.setSunColor(Color.RED);
+        assertFalse(mView.isLayoutRequested());
+
+        mView.setStyle(mView.getStyle().buildUpon().setSunRadius(40).build());
+        assertTrue(mView.isLayoutRequested());
+    }
+
+    @Test
+    public void setDayIndex_doesNotAllocateAfterWarmUp() {
+        setUpView(new NoInvalidateView(RuntimeEnvironment.getApplication()));
+        short[] sunrise = new short[366];
+        short[] sunset = new short[366];
+        for (int day = 0; day < sunrise.length; day++) {
+            // 日出在 04:30 - 08:10 之间变化
+            sunrise[day] = (short) (270 + Math.abs(183 - day) * 220 / 183);
+            sunset[day] = (short) (1440 - 1 - sunrise[day]);
+        }
+        mView.setTimeline(new SunriseSunsetTimeline(sunrise, sunset));
+        mView.setStyle(mView.getStyle().buildUpon()
+                .setTwilightBandWidth(12)
+                .setSkyColors(Color.BLUE, Color.BLACK)
+                .build());
+        mView.setTwilight(TwilightDay.fromPacked(SolarCalculator.pack(377, 1112), SolarCalculator.pack(347, 1142),
+                SolarCalculator.pack(312, 1177), SolarCalculator.pack(277, 1212)));
+        // 首次遍历格式化并缓存每天的标签
+        scrubYear();
+
+        long baseline = allocatedBytes();
+        baseline = allocatedBytes() - baseline;
+        long start = allocatedBytes();
+        scrubYear();
+        long allocated = allocatedBytes() - start - baseline;
+        // 与 onDraw 相同, 允许平均每帧不足1字节的误差
+        assertEquals("bytes allocated per scrubbed frame", 0, allocated / SCRUB_FRAMES);
+    }
+
+    @Test
+    public void setDayIndex_fullyInvalidatesOnlyWhenLabelDayChanges() {
+        mView.setClock(NOON_UTC);
+        mView.setTimeline(new SunriseSunsetTimeline(new short[]{360, 300}, new short[]{1080, 1080}));
+        mView.setDayIndex(0.1f);
+        mView.setDrawMetricsListener(new DrawMetricsListener() {
+            @Override
+            public void onFrameDrawn(SunriseSunsetView view, DrawMetrics metrics) {
+            }
+        });
+        mView.resetInvalidateCounts();
+        DrawMetrics metrics = mView.getDrawMetrics();
+
+        // 同一天内插值, 标签不变, 只重绘太阳移动的区域
+        mView.setDayIndex(0.4f);
+        assertEquals(1, mView.getPartialInvalidateCount());
+        assertEquals(0, metrics.getFullInvalidateCount());
+
+        // 标签切换到第二天, 全部重绘
+        mView.setDayIndex(0.6f);
+        assertEquals(1, mView.getPartialInvalidateCount());
+        assertEquals(1, metrics.getFullInvalidateCount());
+    }
+
+    @Test
+    public void startAnimate_repeatedCallsRunSingleAnimator() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        RatioCountingView view = new RatioCountingView(activity);
+        view.setSunriseTimeOfDay(TimeOfDay.of(6, 0));
+        view.setSunsetTimeOfDay(TimeOfDay.of(18, 0));
+        view.setClock(NOON_UTC);
+        view.setAnimateDuration(500);
+        activity.setContentView(view);
+        idleFrames(1);
+
+        for (int i = 0; i < 5; i++) {
+            view.startAnimate();
+            idleFrames(1);
+        }
+        view.ratioUpdates = 0;
+        int frames = 0;
+        while (view.isAnimating() && frames < 200) {
+            idleFrames(1);
+            frames++;
+        }
+
+        assertFalse(view.isAnimating());
+        // 叠加的动画会在同一帧中多次更新比率
+        assertTrue(view.ratioUpdates + " ratio updates in " + frames + " frames", view.ratioUpdates <= frames + 1);
+        assertEquals(0.5f, view.getRatio(), 1e-3f);
+    }
+
+    @Test
+    public void restoreInstanceState_resumesAnimationWithoutReplay() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        SunriseSunsetView view = new SunriseSunsetView(activity);
+        view.setSunriseTimeOfDay(TimeOfDay.of(6, 0));
+        view.setSunsetTimeOfDay(TimeOfDay.of(18, 0));
+        view.setClock(NOON_UTC);
+        view.setAnimateDuration(1000);
+        activity.setContentView(view);
+        idleFrames(1);
+        view.startAnimate();
+        idleFrames(400 / FRAME_MS);
+        float savedRatio = view.getRatio();
+        assertTrue(view.isAnimating());
+        Parcelable state = writeAndRead(view.onSaveInstanceState());
+
+        // 模拟重建: 新的View恢复状态后从中断处继续播放
+        RatioCountingView restored = new RatioCountingView(activity);
+        restored.setAnimateDuration(1000);
+        activity.setContentView(restored);
+        idleFrames(1);
+        restored.onRestoreInstanceState(state);
+        assertEquals(TimeOfDay.of(6, 0), restored.getSunriseTimeOfDay());
+        assertEquals(TimeOfDay.of(18, 0), restored.getSunsetTimeOfDay());
+        // 恢复后立即位于中断时的位置, 而不是起点
+        assertTrue(savedRatio > 0.1f);
+        assertEquals(savedRatio, restored.getRatio(), 1e-3f);
+        assertTrue(restored.isAnimating());
+
+        restored.minRatio = Float.MAX_VALUE;
+        int frames = 0;
+        while (restored.isAnimating() && frames < 200) {
+            idleFrames(1);
+            frames++;
+        }
+        assertTrue(restored.minRatio + " < " + savedRatio, restored.minRatio >= savedRatio - 1e-3f);
+        assertTrue(frames * FRAME_MS + "ms to finish", frames * FRAME_MS < 1000);
+        assertEquals(0.5f, restored.getRatio(), 1e-3f);
+    }
+
+    @Test
+    public void setSolarEvents_wakesOncePerTransition() {
+        int startDay = SolarCalculator.epochDay(2020, 6, 21);
+        final TimeZone utc = TimeZone.getTimeZone("UTC");
+        SolarEventIndex index = SolarEventIndex.fromTables(new short[]{360, 370}, new short[]{1080, 1090},
+                new TimeZone[]{utc}, startDay, 2);
+        // 第一天 05:00
+        final long[] now = {TimeUnit.DAYS.toMillis(startDay) + TimeUnit.HOURS.toMillis(5)};
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        RatioCountingView view = new RatioCountingView(activity);
+        view.setClock(new SunClock() {
+            @Override
+            public long currentTimeMillis() {
+                return now[0];
+            }
+
+            @Override
+            public TimeZone getTimeZone() {
+                return utc;
+            }
+        });
+        view.setSolarEvents(index, 0);
+        activity.setContentView(view);
+        idleFrames(1);
+        assertEquals(TimeOfDay.of(6, 0), view.getSunriseTimeOfDay());
+        assertEquals(TimeOfDay.of(18, 0), view.getSunsetTimeOfDay());
+        assertEquals(0f, view.getRatio(), 0f);
+
+        view.ratioUpdates = 0;
+        // 逐分钟前进到第二天 20:00
+        for (int minute = 5 * 60; minute < 24 * 60 + 20 * 60; minute++) {
+            now[0] += TimeUnit.MINUTES.toMillis(1);
+            ShadowLooper.idleMainLooper(1, TimeUnit.MINUTES);
+        }
+        // 日出, 日落, 0点, 日出, 日落
+        assertEquals(5, view.ratioUpdates);
+        assertEquals(TimeOfDay.of(6, 10), view.getSunriseTimeOfDay());
+        assertEquals(TimeOfDay.of(18, 10), view.getSunsetTimeOfDay());
+        assertEquals(1f, view.getRatio(), 0f);
+    }
+
+    @Test
+    public void staticLayerCache_rebuildsAfterChanges() {
+        SunriseSunsetView cached = new SunriseSunsetView(RuntimeEnvironment.getApplication());
+        cached.setStaticLayerCacheEnabled(true);
+        cached.setSunriseTimeOfDay(TimeOfDay.of(6, 17));
+        cached.setSunsetTimeOfDay(TimeOfDay.of(18, 32));
+        render(cached, VIEW_WIDTH);
+
+        SunriseSunsetStyle style = cached.getStyle().buildUpon()
+                .setTrackColor(Color.RED)
+                .setLabelTextColor(Color.BLUE)
+                .setLabelTextSize(40)
+                .build();
+        SimpleSunriseSunsetLabelFormatter formatter = new SimpleSunriseSunsetLabelFormatter() {
+            @Override
+            public String formatTime(Time time) {
+                return time.hour + "h" + time.minute;
+            }
+        };
+        cached.setStyle(style);
+        cached.setSunriseTimeOfDay(TimeOfDay.of(5, 40));
+        cached.setSunsetTimeOfDay(TimeOfDay.of(19, 5));
+        cached.setLabelFormatter(formatter);
+
+        SunriseSunsetView uncached = new SunriseSunsetView(RuntimeEnvironment.getApplication());
+        uncached.setStyle(style);
+        uncached.setSunriseTimeOfDay(TimeOfDay.of(5, 40));
+        uncached.setSunsetTimeOfDay(TimeOfDay.of(19, 5));
+        uncached.setLabelFormatter(formatter);
+
+        // 比率为0时没有阴影, 太阳也不与标签重叠, 缓存与否的绘制结果相同
+        assertTrue(render(uncached, VIEW_WIDTH).sameAs(render(cached, VIEW_WIDTH)));
+        assertTrue(render(uncached, VIEW_WIDTH / 2).sameAs(render(cached, VIEW_WIDTH / 2)));
+    }
+
+    // 按指定宽度布局, 以比率0绘制到新的 Bitmap 中
+    private static Bitmap render(SunriseSunsetView view, int width) {
+        view.setRatio(0f);
+        view.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+        Bitmap bitmap = Bitmap.createBitmap(view.getMeasuredWidth(), view.getMeasuredHeight(), Bitmap.Config.ARGB_8888);
+        view.onDraw(new Canvas(bitmap));
+        return bitmap;
+    }
+
+    private static Parcelable writeAndRead(Parcelable state) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            state.writeToParcel(parcel, 0);
+            parcel.setDataPosition(0);
+            return SunriseSunsetView.SavedState.CREATOR.createFromParcel(parcel);
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    // Choreographer 暂停时只有时钟前进到下一帧才会执行布局和动画, 逐帧前进以保持先后顺序
+    private static void idleFrames(int frames) {
+        for (int i = 0; i < frames; i++) {
+            ShadowLooper.idleMainLooper(FRAME_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void scrubYear() {
+        for (int i = 0; i < SCRUB_FRAMES; i++) {
+            mView.setDayIndex(i / 4f);
+            mView.onDraw(mCanvas);
+        }
+    }
+
+    // 统计比率更新次数及最小比率
+    private static class RatioCountingView extends SunriseSunsetView {
+        int ratioUpdates;
+        float minRatio = Float.MAX_VALUE;
+
+        RatioCountingView(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void setRatio(float ratio) {
+            ratioUpdates++;
+            minRatio = Math.min(minRatio, ratio);
+            super.setRatio(ratio);
+        }
+    }
+
+    // Robolectric 中 View.invalidate() 每次在框架内部分配约50字节, 分配测试只统计 SunriseSunsetView 自身的分配
+    private static class NoInvalidateView extends SunriseSunsetView {
+        NoInvalidateView(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void invalidate() {
+        }
+
+        @Override
+        public void invalidate(int l, int t, int r, int b) {
+        }
+    }
+
+    private void drawFrame(int frame) {
+        mView.setRatio((frame % 100) / 100f);
+        mView.onDraw(mCanvas);
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean bean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
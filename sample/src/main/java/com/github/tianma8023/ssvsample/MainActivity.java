@@ -10,6 +10,7 @@ import android.widget.TextView;
 
 import com.github.tianma8023.formatter.SunriseSunsetLabelFormatter;
 import com.github.tianma8023.model.Time;
+import com.github.tianma8023.model.TimeOfDay;
 import com.github.tianma8023.ssv.SunriseSunsetView;
 import com.wdullaer.materialdatetimepicker.time.TimePickerDialog;
 
@@ -126,8 +127,8 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void refreshSSV(int sunriseHour, int sunriseMinute, int sunsetHour, int sunsetMinute) {
-        mSunriseSunsetView.setSunriseTime(new Time(sunriseHour, sunriseMinute));
-        mSunriseSunsetView.setSunsetTime(new Time(sunsetHour, sunsetMinute));
+        mSunriseSunsetView.setSunriseTimeOfDay(TimeOfDay.of(sunriseHour, sunriseMinute));
+        mSunriseSunsetView.setSunsetTimeOfDay(TimeOfDay.of(sunsetHour, sunsetMinute));
         mSunriseSunsetView.startAnimate();
     }
 